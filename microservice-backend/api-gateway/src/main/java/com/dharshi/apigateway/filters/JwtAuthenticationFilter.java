@@ -0,0 +1,133 @@
+package com.dharshi.apigateway.filters;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies the bearer token once at the edge and forwards the caller's identity as signed headers,
+ * so services running with app.auth.trustGatewayHeaders=true do not authenticate the request again.
+ * Identity headers sent by the client are always removed.
+ */
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    public static final String USER_EXPIRES_HEADER = "X-User-Expires";
+    public static final String USER_TOKEN_ID_HEADER = "X-User-Token-Id";
+    public static final String USER_SIGNATURE_HEADER = "X-User-Signature";
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    @Value("${app.jwtSecret}")
+    private String jwtSecret;
+
+    @Value("${app.gatewayIdentitySecret}")
+    private String gatewayIdentitySecret;
+
+    private JwtParser jwtParser;
+
+    private SecretKeySpec identityKey;
+
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+        identityKey = new SecretKeySpec(gatewayIdentitySecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest.Builder request = exchange.getRequest().mutate().headers(headers -> {
+            headers.remove(USER_ID_HEADER);
+            headers.remove(USER_ROLES_HEADER);
+            headers.remove(USER_EXPIRES_HEADER);
+            headers.remove(USER_TOKEN_ID_HEADER);
+            headers.remove(USER_SIGNATURE_HEADER);
+        });
+
+        String jwt = parseJwt(exchange.getRequest());
+        if (jwt != null) {
+            try {
+                Claims claims = jwtParser.parseClaimsJws(jwt).getBody();
+                String userId = claims.get("userId", String.class);
+                List<?> authorities = claims.get("authorities", List.class);
+                Date expiration = claims.getExpiration();
+
+                // tokens without identity claims are left for the services to resolve through auth-service
+                if (userId != null && authorities != null && expiration != null) {
+                    String roles = authorities.stream().map(String::valueOf).collect(Collectors.joining(","));
+                    String expires = String.valueOf(expiration.getTime());
+                    // services check the token id against their revocation list
+                    String tokenId = claims.getId() == null ? "" : claims.getId();
+                    String signature = sign(userId, roles, expires, tokenId);
+
+                    request.headers(headers -> {
+                        headers.set(USER_ID_HEADER, userId);
+                        headers.set(USER_ROLES_HEADER, roles);
+                        headers.set(USER_EXPIRES_HEADER, expires);
+                        headers.set(USER_TOKEN_ID_HEADER, tokenId);
+                        headers.set(USER_SIGNATURE_HEADER, signature);
+                    });
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.debug("Forwarding request without identity headers: {}", e.getMessage());
+            }
+        }
+
+        return chain.filter(exchange.mutate().request(request.build()).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private String sign(String userId, String roles, String expires, String tokenId) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(identityKey);
+            byte[] signature = mac.doFinal((userId + "\n" + roles + "\n" + expires + "\n" + tokenId).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private String parseJwt(ServerHttpRequest request) {
+        String headerAuth = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+
+        return null;
+    }
+}
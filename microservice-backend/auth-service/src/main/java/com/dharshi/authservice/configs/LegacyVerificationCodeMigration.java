@@ -0,0 +1,72 @@
+package com.dharshi.authservice.configs;
+
+import com.dharshi.authservice.modals.User;
+import com.dharshi.authservice.modals.VerificationCode;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Moves verification codes still pending on User documents, where they were kept before the VerificationCodes
+ * collection existed, into that collection so /auth/signup/verify keeps accepting them. Each user is claimed
+ * with a findAndModify that removes the legacy fields, so instances starting together move every code once.
+ * Once no User carries the fields any more, this is a single query at startup.
+ */
+@Component
+@Slf4j
+public class LegacyVerificationCodeMigration {
+
+    private static final String LEGACY_CODE_FIELD = "verificationCode";
+    private static final String LEGACY_EXPIRY_FIELD = "verificationCodeExpiryTime";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // after MongoIndexInitializer, so the unique code index already guards the inserts
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void migrate(ContextRefreshedEvent event) {
+        String usersCollection = mongoTemplate.getCollectionName(User.class);
+        Query pending = Query.query(Criteria.where(LEGACY_CODE_FIELD).exists(true));
+        pending.fields().include(LEGACY_CODE_FIELD, LEGACY_EXPIRY_FIELD, "enabled");
+        Update removeLegacyFields = new Update().unset(LEGACY_CODE_FIELD).unset(LEGACY_EXPIRY_FIELD);
+
+        int moved = 0;
+        Document user;
+        while ((user = mongoTemplate.findAndModify(pending, removeLegacyFields, Document.class, usersCollection)) != null) {
+            String code = user.getString(LEGACY_CODE_FIELD);
+            Date expiryTime = user.getDate(LEGACY_EXPIRY_FIELD);
+            // enabled users and expired codes are only cleaned up, verify would refuse them anyway
+            if (code == null || expiryTime == null || expiryTime.before(new Date()) || user.getBoolean("enabled", false)) {
+                continue;
+            }
+            try {
+                mongoTemplate.insert(VerificationCode.builder()
+                        .code(code)
+                        .userId(user.get("_id") instanceof ObjectId id ? id.toHexString() : String.valueOf(user.get("_id")))
+                        .expiryTime(expiryTime)
+                        .build());
+                moved++;
+            } catch (DuplicateKeyException e) {
+                // the code is already pending for another user, this one has to ask /auth/signup/resend for a new one
+                log.warn("Legacy verification code of user {} collides with a pending code, not moved", user.get("_id"));
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} pending verification codes from Users to VerificationCodes", moved);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.dharshi.authservice.configs;
+
+import com.dharshi.authservice.modals.RefreshToken;
+import com.dharshi.authservice.modals.RevokedToken;
+import com.dharshi.authservice.modals.User;
+import com.dharshi.authservice.modals.VerificationCode;
+import com.mongodb.WriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes that signup and verification rely on, and refuses to start if the unique
+ * ones are missing or cannot be built because existing users share a username or email.
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer {
+
+    private static final int MAX_REPORTED_DUPLICATES = 50;
+
+    private static final Pattern DUPLICATE_KEY_INDEX = Pattern.compile("index: (\\S+)");
+
+    public static final String USERNAME_INDEX = "username_unique";
+    public static final String EMAIL_INDEX = "email_unique";
+    public static final String VERIFICATION_CODE_INDEX = "code_unique";
+    public static final String VERIFICATION_CODE_USER_INDEX = "userId";
+    public static final String VERIFICATION_CODE_EXPIRY_INDEX = "expiryTime_ttl";
+    public static final String REFRESH_TOKEN_INDEX = "tokenHash_unique";
+    public static final String REFRESH_TOKEN_USER_INDEX = "userId";
+    public static final String REFRESH_TOKEN_EXPIRY_INDEX = "expiryTime_ttl";
+    public static final String REVOKED_TOKEN_REVOKED_AT_INDEX = "revokedAt";
+    public static final String REVOKED_TOKEN_EXPIRY_INDEX = "expiryTime_ttl";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void createIndexes(ContextRefreshedEvent event) {
+        IndexOperations userIndexes = mongoTemplate.indexOps(User.class);
+        // a unique index cannot be built over duplicates, so those are reported instead of a bare build failure
+        verifyNoDuplicates(userIndexes, "username", USERNAME_INDEX);
+        verifyNoDuplicates(userIndexes, "email", EMAIL_INDEX);
+        userIndexes.ensureIndex(new Index().on("username", Sort.Direction.ASC).unique().named(USERNAME_INDEX));
+        userIndexes.ensureIndex(new Index().on("email", Sort.Direction.ASC).unique().named(EMAIL_INDEX));
+
+        verifyUniqueIndex(userIndexes.getIndexInfo(), USERNAME_INDEX);
+        verifyUniqueIndex(userIndexes.getIndexInfo(), EMAIL_INDEX);
+
+        IndexOperations codeIndexes = mongoTemplate.indexOps(VerificationCode.class);
+        codeIndexes.ensureIndex(new Index().on("code", Sort.Direction.ASC).unique().named(VERIFICATION_CODE_INDEX));
+        codeIndexes.ensureIndex(new Index().on("userId", Sort.Direction.ASC).named(VERIFICATION_CODE_USER_INDEX));
+        codeIndexes.ensureIndex(new Index().on("expiryTime", Sort.Direction.ASC)
+                .expire(0, TimeUnit.SECONDS).named(VERIFICATION_CODE_EXPIRY_INDEX));
+
+        verifyUniqueIndex(codeIndexes.getIndexInfo(), VERIFICATION_CODE_INDEX);
+
+        IndexOperations refreshTokenIndexes = mongoTemplate.indexOps(RefreshToken.class);
+        refreshTokenIndexes.ensureIndex(new Index().on("tokenHash", Sort.Direction.ASC).unique().named(REFRESH_TOKEN_INDEX));
+        refreshTokenIndexes.ensureIndex(new Index().on("userId", Sort.Direction.ASC).named(REFRESH_TOKEN_USER_INDEX));
+        refreshTokenIndexes.ensureIndex(new Index().on("expiryTime", Sort.Direction.ASC)
+                .expire(0, TimeUnit.SECONDS).named(REFRESH_TOKEN_EXPIRY_INDEX));
+
+        verifyUniqueIndex(refreshTokenIndexes.getIndexInfo(), REFRESH_TOKEN_INDEX);
+
+        IndexOperations revokedTokenIndexes = mongoTemplate.indexOps(RevokedToken.class);
+        revokedTokenIndexes.ensureIndex(new Index().on("revokedAt", Sort.Direction.ASC).named(REVOKED_TOKEN_REVOKED_AT_INDEX));
+        revokedTokenIndexes.ensureIndex(new Index().on("expiryTime", Sort.Direction.ASC)
+                .expire(0, TimeUnit.SECONDS).named(REVOKED_TOKEN_EXPIRY_INDEX));
+        log.info("Indexes are in place on Users, VerificationCodes, RefreshTokens and RevokedTokens");
+    }
+
+    /**
+     * @return the name of the unique index a duplicate key write error was raised by, or null if it names none
+     */
+    public static String violatedIndex(WriteError error) {
+        if (error == null) {
+            return null;
+        }
+        // the server reports E11000 as "... index: <name> dup key: { ... }", the name is not a separate field
+        Matcher matcher = DUPLICATE_KEY_INDEX.matcher(error.getMessage());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private void verifyNoDuplicates(IndexOperations userIndexes, String field, String indexName) {
+        if (userIndexes.getIndexInfo().stream().anyMatch(index -> index.getName().equals(indexName))) {
+            return;
+        }
+
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.group(field).count().as("count").push("_id").as("userIds"),
+                Aggregation.match(Criteria.where("count").gt(1)),
+                Aggregation.limit(MAX_REPORTED_DUPLICATES)
+        );
+        List<Document> groups = mongoTemplate.aggregate(duplicates, User.class, Document.class).getMappedResults();
+        if (groups.isEmpty()) {
+            return;
+        }
+
+        // accounts cannot be merged automatically, which one to keep has to be decided by hand
+        String report = groups.stream()
+                .map(group -> group.get("_id") + " " + group.get("userIds", List.class))
+                .collect(Collectors.joining("; "));
+        throw new IllegalStateException("Unique index " + indexName + " cannot be created, Users share a " + field
+                + " (first " + MAX_REPORTED_DUPLICATES + " values shown): " + report);
+    }
+
+    private void verifyUniqueIndex(List<IndexInfo> indexes, String name) {
+        boolean present = indexes.stream().anyMatch(index -> index.getName().equals(name) && index.isUnique());
+        if (!present) {
+            throw new IllegalStateException("Unique index " + name + " is missing");
+        }
+    }
+}
@@ -1,19 +1,30 @@
 package com.dharshi.authservice.controllers;
 
 import com.dharshi.authservice.dtos.ApiResponseDto;
+import com.dharshi.authservice.dtos.RefreshTokenRequestDto;
 import com.dharshi.authservice.dtos.SignInRequestDto;
 import com.dharshi.authservice.dtos.SignUpRequestDto;
+import com.dharshi.authservice.exceptions.LoginThrottledException;
 import com.dharshi.authservice.exceptions.ServiceLogicException;
+import com.dharshi.authservice.exceptions.TokenRefreshFailedException;
 import com.dharshi.authservice.exceptions.UserAlreadyExistsException;
 import com.dharshi.authservice.exceptions.UserNotFoundException;
 import com.dharshi.authservice.exceptions.UserVerificationFailedException;
+import com.dharshi.authservice.security.ClientIpResolver;
+import com.dharshi.authservice.security.InternalServiceVerifier;
 import com.dharshi.authservice.services.AuthService;
+import com.dharshi.authservice.services.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.List;
 
 
 @RestController
@@ -23,6 +34,15 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
+    @Autowired
+    private InternalServiceVerifier internalServiceVerifier;
+
     @PostMapping("/signup")
     ResponseEntity<ApiResponseDto<?>> registerUser(@RequestBody @Valid SignUpRequestDto signUpRequestDto)
             throws UnsupportedEncodingException, UserAlreadyExistsException, ServiceLogicException{
@@ -42,8 +62,36 @@ public class AuthController {
     }
 
     @PostMapping("/signin")
-    ResponseEntity<ApiResponseDto<?>> authenticateUser(@RequestBody @Valid SignInRequestDto signInRequestDto){
-        return authService.authenticateUser(signInRequestDto);
+    ResponseEntity<ApiResponseDto<?>> authenticateUser(@RequestBody @Valid SignInRequestDto signInRequestDto, HttpServletRequest request)
+            throws LoginThrottledException{
+        return authService.authenticateUser(signInRequestDto, clientIpResolver.resolve(request));
+    }
+
+    @PostMapping("/refresh")
+    ResponseEntity<ApiResponseDto<?>> refreshToken(@RequestBody @Valid RefreshTokenRequestDto refreshTokenRequestDto)
+            throws TokenRefreshFailedException{
+        return authService.refreshToken(refreshTokenRequestDto);
+    }
+
+    @PostMapping("/logout")
+    ResponseEntity<ApiResponseDto<?>> logout(@RequestHeader("Authorization") String authorization,
+                                             @RequestBody(required = false) RefreshTokenRequestDto refreshTokenRequestDto){
+        return authService.logout(authorization.replaceFirst("^Bearer ", ""), refreshTokenRequestDto);
+    }
+
+    @GetMapping("/revocations")
+    ResponseEntity<ApiResponseDto<?>> getRevokedTokens(@RequestParam(defaultValue = "0") long since,
+                                                       @RequestHeader(value = InternalServiceVerifier.SERVICE_TOKEN_HEADER, required = false) String serviceToken){
+        // /auth/** is public, but the revocation feed is only for the other services
+        if (!internalServiceVerifier.isInternal(serviceToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                    ApiResponseDto.builder()
+                            .isSuccess(false)
+                            .message("Access denied!")
+                            .build()
+            );
+        }
+        return authService.getRevokedTokens(since);
     }
 
     @GetMapping("/isValidToken")
@@ -51,4 +99,16 @@ public class AuthController {
         return authService.validateToken(token);
     }
 
+    @PostMapping("/isValidToken/batch")
+    ResponseEntity<ApiResponseDto<?>> validateTokens(@RequestBody List<String> tokens){
+        return authService.validateTokens(tokens);
+    }
+
+    @PostMapping("/users/import")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    ResponseEntity<ApiResponseDto<?>> importUsers(InputStream body, @RequestParam(defaultValue = "true") boolean enabled)
+            throws ServiceLogicException{
+        return userImportService.importUsers(body, enabled);
+    }
+
 }
@@ -3,6 +3,7 @@ package com.dharshi.authservice.dataSeeders;
 import com.dharshi.authservice.enums.ERole;
 import com.dharshi.authservice.modals.Role;
 import com.dharshi.authservice.repositories.RoleRepository;
+import com.dharshi.authservice.services.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
@@ -17,6 +18,9 @@ public class RoleDataSeeder {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private RoleService roleService;
+
     @EventListener
     @Transactional
     public void LoadRoles(ContextRefreshedEvent event) {
@@ -27,6 +31,7 @@ public class RoleDataSeeder {
                 roleRepository.save(new Role(erole));
             }
         }
+        roleService.refreshRoles();
     }
 
 }
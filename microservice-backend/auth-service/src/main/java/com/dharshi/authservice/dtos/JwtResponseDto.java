@@ -9,6 +9,7 @@ import java.util.List;
 @Builder
 public class JwtResponseDto {
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private String id;
     private String username;
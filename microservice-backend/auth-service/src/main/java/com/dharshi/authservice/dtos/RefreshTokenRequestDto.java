@@ -0,0 +1,14 @@
+package com.dharshi.authservice.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenRequestDto {
+    @NotBlank(message = "Refresh token is required!")
+    private String refreshToken;
+}
@@ -0,0 +1,11 @@
+package com.dharshi.authservice.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RevokedTokenDto {
+    private String tokenId;
+    private long expiresAt;
+}
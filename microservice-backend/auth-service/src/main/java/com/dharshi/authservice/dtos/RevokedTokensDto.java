@@ -0,0 +1,14 @@
+package com.dharshi.authservice.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class RevokedTokensDto {
+    // server time of this snapshot, to be passed back as "since" on the next poll
+    private long asOf;
+    private List<RevokedTokenDto> tokens;
+}
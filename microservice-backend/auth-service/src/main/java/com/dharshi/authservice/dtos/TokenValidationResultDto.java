@@ -0,0 +1,12 @@
+package com.dharshi.authservice.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TokenValidationResultDto {
+    private boolean isValid;
+    private String message;
+    private UserAuthorityDto userAuthority;
+}
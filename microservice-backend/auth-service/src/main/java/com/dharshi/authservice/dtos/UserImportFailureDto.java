@@ -0,0 +1,12 @@
+package com.dharshi.authservice.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserImportFailureDto {
+    private int index;
+    private String email;
+    private String reason;
+}
@@ -0,0 +1,15 @@
+package com.dharshi.authservice.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserImportResultDto {
+    private int received;
+    private int imported;
+    private int failed;
+    private List<UserImportFailureDto> failures;
+}
@@ -70,6 +70,36 @@ public class RestExceptionHandler {
     }
 
 
+    @ExceptionHandler(value = TokenRefreshFailedException.class)
+    public ResponseEntity<ApiResponseDto<?>> TokenRefreshFailedExceptionHandler(TokenRefreshFailedException exception) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                ApiResponseDto.builder()
+                        .isSuccess(false)
+                        .message(exception.getMessage())
+                        .build()
+        );
+    }
+
+    @ExceptionHandler(value = LoginThrottledException.class)
+    public ResponseEntity<ApiResponseDto<?>> LoginThrottledExceptionHandler(LoginThrottledException exception) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(
+                ApiResponseDto.builder()
+                        .isSuccess(false)
+                        .message(exception.getMessage())
+                        .build()
+        );
+    }
+
+    @ExceptionHandler(value = PasswordHashingUnavailableException.class)
+    public ResponseEntity<ApiResponseDto<?>> PasswordHashingUnavailableExceptionHandler(PasswordHashingUnavailableException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                ApiResponseDto.builder()
+                        .isSuccess(false)
+                        .message(exception.getMessage())
+                        .build()
+        );
+    }
+
     @ExceptionHandler(value = RoleNotFoundException.class)
     public ResponseEntity<ApiResponseDto<?>> RoleNotFoundExceptionHandler(RoleNotFoundException exception) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
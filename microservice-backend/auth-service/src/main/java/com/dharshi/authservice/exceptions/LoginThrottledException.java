@@ -0,0 +1,8 @@
+package com.dharshi.authservice.exceptions;
+
+public class LoginThrottledException extends Exception{
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
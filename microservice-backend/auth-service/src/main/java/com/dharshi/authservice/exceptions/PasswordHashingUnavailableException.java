@@ -0,0 +1,10 @@
+package com.dharshi.authservice.exceptions;
+
+// unchecked because it is raised from inside PasswordEncoder calls made by Spring Security
+public class PasswordHashingUnavailableException extends RuntimeException{
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+
+}
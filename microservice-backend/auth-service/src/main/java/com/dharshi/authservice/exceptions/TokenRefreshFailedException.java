@@ -0,0 +1,8 @@
+package com.dharshi.authservice.exceptions;
+
+public class TokenRefreshFailedException extends Exception{
+
+    public TokenRefreshFailedException(String message) {
+        super(message);
+    }
+}
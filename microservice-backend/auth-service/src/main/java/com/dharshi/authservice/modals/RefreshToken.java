@@ -0,0 +1,30 @@
+package com.dharshi.authservice.modals;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "RefreshTokens")
+@Builder
+public class RefreshToken {
+    @Id
+    private String id;
+
+    // only the SHA-256 digest is stored, never the token handed to the client
+    private String tokenHash;
+
+    private String userId;
+
+    private String email;
+
+    // a TTL index on this field lets MongoDB purge the token once it has expired
+    private Date expiryTime;
+}
@@ -0,0 +1,26 @@
+package com.dharshi.authservice.modals;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "RevokedTokens")
+@Builder
+public class RevokedToken {
+    // the jti claim of the revoked access token
+    @Id
+    private String tokenId;
+
+    // a TTL index on this field drops the entry once the token would have expired anyway
+    private Date expiryTime;
+
+    private Date revokedAt;
+}
@@ -6,7 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -25,10 +24,6 @@ public class User {
 
     private String password;
 
-    private String verificationCode;
-
-    private Date verificationCodeExpiryTime;
-
     private boolean enabled;
 
     private String profileImgUrl;
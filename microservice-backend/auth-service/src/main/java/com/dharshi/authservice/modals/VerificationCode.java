@@ -0,0 +1,27 @@
+package com.dharshi.authservice.modals;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "VerificationCodes")
+@Builder
+public class VerificationCode {
+    @Id
+    private String id;
+
+    private String code;
+
+    private String userId;
+
+    // a TTL index on this field lets MongoDB purge the code once it has expired
+    private Date expiryTime;
+}
@@ -0,0 +1,11 @@
+package com.dharshi.authservice.repositories;
+
+import com.dharshi.authservice.modals.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+    // find-and-remove, so a refresh token can be redeemed only once even under concurrent requests
+    RefreshToken deleteByTokenHash(String tokenHash);
+}
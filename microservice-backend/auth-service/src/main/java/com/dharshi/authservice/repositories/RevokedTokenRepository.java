@@ -0,0 +1,13 @@
+package com.dharshi.authservice.repositories;
+
+import com.dharshi.authservice.modals.RevokedToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+    List<RevokedToken> findByRevokedAtAfter(Date revokedAt);
+}
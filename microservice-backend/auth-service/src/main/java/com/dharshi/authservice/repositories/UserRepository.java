@@ -11,8 +11,6 @@ import java.util.Optional;
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
 
-    User findByVerificationCode(String verificationCode);
-
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
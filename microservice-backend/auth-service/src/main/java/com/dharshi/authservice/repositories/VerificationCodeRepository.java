@@ -0,0 +1,14 @@
+package com.dharshi.authservice.repositories;
+
+import com.dharshi.authservice.modals.VerificationCode;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface VerificationCodeRepository extends MongoRepository<VerificationCode, String> {
+    Optional<VerificationCode> findByCode(String code);
+
+    void deleteByUserId(String userId);
+}
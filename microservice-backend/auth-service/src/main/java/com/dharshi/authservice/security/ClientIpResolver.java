@@ -0,0 +1,42 @@
+package com.dharshi.authservice.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the client address for login throttling. Every proxy appends the address it received the request from
+ * to X-Forwarded-For, so only the entries added by our own proxies can be trusted; anything to their left was
+ * sent by the client and may be forged. With nginx in front of api-gateway there are two trusted hops: the
+ * connection comes from the gateway, the right-most entry is nginx's address and the one before it is the
+ * address nginx saw.
+ */
+@Component
+public class ClientIpResolver {
+
+    private final int trustedProxies;
+
+    public ClientIpResolver(@Value("${app.loginThrottle.trustedProxies}") int trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        List<String> hops = new ArrayList<>();
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null) {
+            for (String entry : forwardedFor.split(",")) {
+                if (!entry.isBlank()) {
+                    hops.add(entry.trim());
+                }
+            }
+        }
+        hops.add(request.getRemoteAddr());
+
+        // fewer hops than trusted proxies means the request skipped a proxy, the left-most hop is then the closest we have
+        int clientIndex = hops.size() - 1 - trustedProxies;
+        return hops.get(Math.max(0, clientIndex));
+    }
+}
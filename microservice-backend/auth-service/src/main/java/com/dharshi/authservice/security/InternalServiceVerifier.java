@@ -0,0 +1,30 @@
+package com.dharshi.authservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Recognises calls from the other backend services by the shared service token they send,
+ * for endpoints that must not be reachable by clients even though /auth/** is public.
+ */
+@Component
+public class InternalServiceVerifier {
+
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    private final byte[] serviceToken;
+
+    public InternalServiceVerifier(@Value("${app.internalServiceToken}") String serviceToken) {
+        this.serviceToken = serviceToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isInternal(String presentedToken) {
+        if (presentedToken == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(serviceToken, presentedToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
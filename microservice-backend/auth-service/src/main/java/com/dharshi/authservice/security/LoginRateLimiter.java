@@ -0,0 +1,122 @@
+package com.dharshi.authservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory token buckets for /auth/signin, one per account and one per client IP, checked before any
+ * password hashing happens. Buckets are spread over lock stripes; each stripe is an LRU map with a
+ * fixed capacity, so idle buckets are evicted first and memory stays bounded.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final BucketStripes emailBuckets;
+
+    private final BucketStripes ipBuckets;
+
+    private final Counter emailRejections;
+
+    private final Counter ipRejections;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${app.loginThrottle.stripes}") int stripes,
+                            @Value("${app.loginThrottle.maxBuckets}") int maxBuckets,
+                            @Value("${app.loginThrottle.email.capacity}") int emailCapacity,
+                            @Value("${app.loginThrottle.email.refillPerMinute}") int emailRefillPerMinute,
+                            @Value("${app.loginThrottle.ip.capacity}") int ipCapacity,
+                            @Value("${app.loginThrottle.ip.refillPerMinute}") int ipRefillPerMinute) {
+        this.emailBuckets = new BucketStripes(stripes, maxBuckets, emailCapacity, emailRefillPerMinute);
+        this.ipBuckets = new BucketStripes(stripes, maxBuckets, ipCapacity, ipRefillPerMinute);
+        this.emailRejections = Counter.builder("login.throttled")
+                .description("Sign-in attempts rejected by the login rate limiter")
+                .tag("key", "email")
+                .register(meterRegistry);
+        this.ipRejections = Counter.builder("login.throttled")
+                .description("Sign-in attempts rejected by the login rate limiter")
+                .tag("key", "ip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false if either the client IP or the account has used up its sign-in attempts
+     */
+    public boolean tryAcquire(String email, String clientIp) {
+        if (clientIp != null && !ipBuckets.tryConsume(clientIp)) {
+            ipRejections.increment();
+            return false;
+        }
+        if (email != null && !emailBuckets.tryConsume(email.toLowerCase(Locale.ROOT))) {
+            emailRejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private static class BucketStripes {
+
+        private final Map<String, TokenBucket>[] stripes;
+
+        private final double capacity;
+
+        private final double refillPerNano;
+
+        @SuppressWarnings("unchecked")
+        BucketStripes(int stripeCount, int maxBuckets, int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerMinute / 60_000_000_000.0;
+            this.stripes = new Map[stripeCount];
+            int bucketsPerStripe = Math.max(1, maxBuckets / stripeCount);
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                        return size() > bucketsPerStripe;
+                    }
+                };
+            }
+        }
+
+        boolean tryConsume(String key) {
+            Map<String, TokenBucket> stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+            long now = System.nanoTime();
+            synchronized (stripe) {
+                TokenBucket bucket = stripe.get(key);
+                if (bucket == null) {
+                    bucket = new TokenBucket(capacity, now);
+                    stripe.put(key, bucket);
+                }
+                return bucket.tryConsume(now, capacity, refillPerNano);
+            }
+        }
+    }
+
+    // guarded by the lock of the stripe that holds it
+    private static class TokenBucket {
+
+        private double tokens;
+
+        private long lastRefillNanos;
+
+        TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+
+        boolean tryConsume(long now, double capacity, double refillPerNano) {
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.dharshi.authservice.security;
+
+import com.dharshi.authservice.modals.RevokedToken;
+import com.dharshi.authservice.repositories.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Local copy of the revoked access tokens, the same structure the other services keep, but refreshed
+ * straight from the RevokedTokens collection. Revocations made by this instance are added immediately,
+ * those made by other auth-service instances arrive with the next refresh. Lookups go through a Bloom
+ * filter first, so validating a token that is not revoked costs no database round trip.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final int BLOOM_BITS = 1 << 20;
+    private static final int BLOOM_HASHES = 3;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${app.tokenRevocation.overlapMs}")
+    private long overlapMs;
+
+    // token id -> token expiry in ms, entries are dropped once the token has expired anyway
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private volatile AtomicLongArray bloomFilter = new AtomicLongArray(BLOOM_BITS / Long.SIZE);
+
+    // held by writers only, isRevoked reads the published filter without it
+    private final Object rebuildLock = new Object();
+
+    private long syncedUntil = 0;
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+
+        AtomicLongArray bits = bloomFilter;
+        int hash = tokenId.hashCode();
+        int step = Integer.rotateLeft(hash * 0x9E3779B9, 16) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (hash + i * step) & (BLOOM_BITS - 1);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return revokedTokens.containsKey(tokenId);
+    }
+
+    public void revoke(String tokenId, long expiresAt) {
+        // under the rebuild lock, so the bits cannot land in a filter that removeExpired is about to replace
+        synchronized (rebuildLock) {
+            revokedTokens.put(tokenId, expiresAt);
+            setBits(bloomFilter, tokenId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.tokenRevocation.refreshIntervalMs}")
+    public void refresh() {
+        try {
+            // polls overlap a little so a revocation committed just before the last snapshot is not missed
+            long asOf = System.currentTimeMillis();
+            long since = Math.max(0, syncedUntil - overlapMs);
+            for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfter(new Date(since))) {
+                revoke(token.getTokenId(), token.getExpiryTime().getTime());
+            }
+            syncedUntil = asOf;
+
+            removeExpired();
+        } catch (Exception e) {
+            logger.warn("Cannot refresh token revocation list: {}", e.getMessage());
+        }
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (rebuildLock) {
+            if (revokedTokens.values().removeIf(expiresAt -> expiresAt < now)) {
+                // a Bloom filter cannot forget entries, so rebuild it from what is left
+                AtomicLongArray rebuilt = new AtomicLongArray(BLOOM_BITS / Long.SIZE);
+                revokedTokens.keySet().forEach(tokenId -> setBits(rebuilt, tokenId));
+                bloomFilter = rebuilt;
+            }
+        }
+    }
+
+    private void setBits(AtomicLongArray bits, String tokenId) {
+        int hash = tokenId.hashCode();
+        int step = Integer.rotateLeft(hash * 0x9E3779B9, 16) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (hash + i * step) & (BLOOM_BITS - 1);
+            long mask = 1L << bit;
+            bits.getAndAccumulate(bit >>> 6, mask, (current, update) -> current | update);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.dharshi.authservice.security;
+
+import com.dharshi.authservice.dtos.UserAuthorityDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memoizes the {@link UserAuthorityDto} resolved by /auth/isValidToken, keyed by the SHA-256 digest of the
+ * token. An entry never outlives the token and is dropped when the token is logged out or its user changes.
+ */
+@Component
+public class TokenValidationCache {
+
+    private final Cache<String, CachedAuthority> cache;
+
+    private final long maxTtlMs;
+
+    // bumped on every invalidation so a lookup that started before it cannot store a stale result
+    private final AtomicLong generation = new AtomicLong();
+
+    public TokenValidationCache(MeterRegistry meterRegistry,
+                                @Value("${app.tokenValidationCache.maxSize}") long maxSize,
+                                @Value("${app.tokenValidationCache.maxTtlMs}") long maxTtlMs) {
+        this.maxTtlMs = maxTtlMs;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokenValidationCache");
+    }
+
+    public UserAuthorityDto get(String token) {
+        CachedAuthority cachedAuthority = cache.getIfPresent(digest(token));
+        return cachedAuthority == null ? null : cachedAuthority.userAuthority();
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @param generation the value of {@link #currentGeneration()} read before the authority was resolved
+     */
+    public void put(String token, String email, UserAuthorityDto userAuthority, Date tokenExpiration, long generation) {
+        long now = System.currentTimeMillis();
+        long expiresAtMs = now + maxTtlMs;
+        if (tokenExpiration != null) {
+            expiresAtMs = Math.min(expiresAtMs, tokenExpiration.getTime());
+        }
+        if (userAuthority == null || expiresAtMs <= now) {
+            return;
+        }
+
+        String key = digest(token);
+        cache.put(key, new CachedAuthority(userAuthority, email, expiresAtMs));
+        if (this.generation.get() != generation) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateToken(String token) {
+        generation.incrementAndGet();
+        cache.invalidate(digest(token));
+    }
+
+    public void invalidateUser(String email) {
+        // user changes are rare next to validations, so a scan beats keeping a per-user index
+        generation.incrementAndGet();
+        cache.asMap().values().removeIf(cachedAuthority -> email.equals(cachedAuthority.email()));
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedAuthority(UserAuthorityDto userAuthority, String email, long expiresAtMs) {
+    }
+
+    private static class TokenExpiry implements Expiry<String, CachedAuthority> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthority value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMs() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthority value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthority value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -3,15 +3,22 @@ package com.dharshi.authservice.security;
 import com.dharshi.authservice.modals.User;
 import com.dharshi.authservice.repositories.UserRepository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+
 
 @Service
 @Slf4j
@@ -19,13 +26,51 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    TokenValidationCache tokenValidationCache;
+
+    // read-through cache keyed by email, entries are evicted whenever AuthServiceImpl changes the user.
+    // Eviction is local to this instance, other instances see a change once their entry expires after ttlMs.
+    // Only enabled users are cached, so a user verified on another instance can sign in here right away.
+    private final Cache<String, UserDetailsImpl> userDetailsCache;
+
+    public UserDetailsServiceImpl(MeterRegistry meterRegistry,
+                                  @Value("${app.userDetailsCache.maxSize}") long maxSize,
+                                  @Value("${app.userDetailsCache.ttlMs}") long ttlMs) {
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "userDetailsCache");
+    }
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        log.info("Loading the user - with username" + username);
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
-        log.info("loaded the user - with username" + user);
+        UserDetailsImpl cachedUser = userDetailsCache.getIfPresent(username);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+
+        UserDetailsImpl user = loadUserByEmail(username);
+        if (user.isEnabled()) {
+            userDetailsCache.put(username, user);
+        }
+        return user;
+    }
+
+    public void evictUser(String email) {
+        if (email != null) {
+            userDetailsCache.invalidate(email);
+            tokenValidationCache.invalidateUser(email);
+        }
+    }
+
+    private UserDetailsImpl loadUserByEmail(String email) {
+        log.debug("Loading the user with email {}", email);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + email));
         return UserDetailsImpl.build(user);
     }
-}
\ No newline at end of file
+}
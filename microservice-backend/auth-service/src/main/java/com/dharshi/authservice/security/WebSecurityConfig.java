@@ -2,7 +2,9 @@ package com.dharshi.authservice.security;
 
 import com.dharshi.authservice.security.jwt.AuthEntryPointJwt;
 import com.dharshi.authservice.security.jwt.AuthTokenFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -49,9 +51,19 @@ public class WebSecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.passwordHashing.threads}")
+    private int passwordHashingThreads;
+
+    @Value("${app.passwordHashing.queueCapacity}")
+    private int passwordHashingQueueCapacity;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(),
+                passwordHashingThreads, passwordHashingQueueCapacity, meterRegistry);
     }
 
     @Bean
@@ -1,9 +1,12 @@
 package com.dharshi.authservice.services;
 
 import com.dharshi.authservice.dtos.ApiResponseDto;
+import com.dharshi.authservice.dtos.RefreshTokenRequestDto;
 import com.dharshi.authservice.dtos.SignInRequestDto;
 import com.dharshi.authservice.dtos.SignUpRequestDto;
+import com.dharshi.authservice.exceptions.LoginThrottledException;
 import com.dharshi.authservice.exceptions.ServiceLogicException;
+import com.dharshi.authservice.exceptions.TokenRefreshFailedException;
 import com.dharshi.authservice.exceptions.UserAlreadyExistsException;
 import com.dharshi.authservice.exceptions.UserNotFoundException;
 import com.dharshi.authservice.exceptions.UserVerificationFailedException;
@@ -11,12 +14,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.io.UnsupportedEncodingException;
+import java.util.List;
 
 @Service
 public interface AuthService {
     ResponseEntity<ApiResponseDto<?>> registerUser(SignUpRequestDto signUpRequestDto) throws UnsupportedEncodingException, UserAlreadyExistsException, ServiceLogicException;
     ResponseEntity<ApiResponseDto<?>> resendVerificationCode(String email) throws UnsupportedEncodingException, UserNotFoundException, ServiceLogicException;
     ResponseEntity<ApiResponseDto<?>> verifyRegistrationVerification(String code) throws UserVerificationFailedException;
-    ResponseEntity<ApiResponseDto<?>> authenticateUser(SignInRequestDto signInRequestDto);
+    ResponseEntity<ApiResponseDto<?>> authenticateUser(SignInRequestDto signInRequestDto, String clientIp) throws LoginThrottledException;
+    ResponseEntity<ApiResponseDto<?>> refreshToken(RefreshTokenRequestDto refreshTokenRequestDto) throws TokenRefreshFailedException;
+    ResponseEntity<ApiResponseDto<?>> logout(String token, RefreshTokenRequestDto refreshTokenRequestDto);
+    ResponseEntity<ApiResponseDto<?>> getRevokedTokens(long since);
     ResponseEntity<ApiResponseDto<?>> validateToken(String token);
+    ResponseEntity<ApiResponseDto<?>> validateTokens(List<String> tokens);
 }
@@ -1,18 +1,31 @@
 package com.dharshi.authservice.services;
 
+import com.dharshi.authservice.configs.MongoIndexInitializer;
 import com.dharshi.authservice.dtos.*;
 import com.dharshi.authservice.exceptions.*;
 import com.dharshi.authservice.factories.RoleFactory;
 import com.dharshi.authservice.feigns.NotificationService;
+import com.dharshi.authservice.modals.RefreshToken;
+import com.dharshi.authservice.modals.RevokedToken;
 import com.dharshi.authservice.modals.Role;
 import com.dharshi.authservice.modals.User;
+import com.dharshi.authservice.modals.VerificationCode;
+import com.dharshi.authservice.repositories.RevokedTokenRepository;
 import com.dharshi.authservice.repositories.UserRepository;
+import com.dharshi.authservice.repositories.VerificationCodeRepository;
+import com.dharshi.authservice.security.LoginRateLimiter;
+import com.dharshi.authservice.security.TokenRevocationList;
+import com.dharshi.authservice.security.TokenValidationCache;
 import com.dharshi.authservice.security.UserDetailsImpl;
 import com.dharshi.authservice.security.UserDetailsServiceImpl;
 import com.dharshi.authservice.security.jwt.JwtUtils;
+import com.mongodb.MongoWriteException;
+import com.mongodb.WriteError;
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,10 +34,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -40,6 +54,9 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private VerificationCodeRepository verificationCodeRepository;
+
     @Autowired
     private NotificationService notificationService;
 
@@ -49,40 +66,53 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Value("${app.tokenValidationBatchMaxSize}")
+    private int MAX_TOKEN_BATCH_SIZE;
+
+    private static final int MAX_VERIFICATION_CODE_ATTEMPTS = 3;
+
     @Value("${app.verificationCodeExpirationMs}")
     private long EXPIRY_PERIOD;
 
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     @Autowired
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private TokenValidationCache tokenValidationCache;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
 
     @Override
     public ResponseEntity<ApiResponseDto<?>> registerUser(SignUpRequestDto signUpRequestDto)
             throws UserAlreadyExistsException, ServiceLogicException {
 
-        if (userRepository.existsByUsername(signUpRequestDto.getUserName())) {
-            throw new UserAlreadyExistsException("Registration Failed: username is already taken!");
-        }
-        if (userRepository.existsByEmail(signUpRequestDto.getEmail())) {
-            throw new UserAlreadyExistsException("Registration Failed: email is already taken!");
-        }
-
         try {
             User user = createUser(signUpRequestDto);
-            User savedUser = userRepository.insert(user);
+            User savedUser = insertUser(user);
 
             String verificationCode = null;
             if (savedUser.getId() != null) {
                 try {
-                    //sendRegistrationVerificationEmail(user);
-                    verificationCode = savedUser.getVerificationCode(); // added by sanjeev 
+                    verificationCode = issueVerificationCode(savedUser).getCode();
+                    //sendRegistrationVerificationEmail(user, verificationCode);
                 }catch (Exception e) {
-                    removeDisabledUser(savedUser.getId());
+                    removeDisabledUser(savedUser);
                     throw new ServiceLogicException("Failed to send verification email. Recheck your email or try again later!");
                 }
             }
@@ -96,6 +126,8 @@ public class AuthServiceImpl implements AuthService {
                             .build()
             );
 
+        }catch (UserAlreadyExistsException | PasswordHashingUnavailableException e) {
+            throw e;
         }catch(Exception e) {
             e.printStackTrace();
             log.error("Registration failed: {}", e.getMessage());
@@ -105,23 +137,27 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public ResponseEntity<ApiResponseDto<?>> verifyRegistrationVerification(String code) throws UserVerificationFailedException {
-        User user = userRepository.findByVerificationCode(code);
-
-        if (user == null || user.isEnabled()) {
-            throw new UserVerificationFailedException("Verification failed: invalid verification code!");
-        }
+        VerificationCode verificationCode = verificationCodeRepository.findByCode(code)
+                .orElseThrow(() -> new UserVerificationFailedException("Verification failed: invalid verification code!"));
 
+        // the TTL monitor only purges expired codes about once a minute, so expiry is still checked here
         long currentTimeInMs = System.currentTimeMillis();
-        long codeExpiryTimeInMillis = user.getVerificationCodeExpiryTime().getTime();
+        long codeExpiryTimeInMillis = verificationCode.getExpiryTime().getTime();
 
         if (currentTimeInMs > codeExpiryTimeInMillis) {
             throw new UserVerificationFailedException("Verification failed: expired verification code!");
         }
 
-        user.setVerificationCode(null);
-        user.setVerificationCodeExpiryTime(null);
+        User user = userRepository.findById(verificationCode.getUserId()).orElse(null);
+
+        if (user == null || user.isEnabled()) {
+            throw new UserVerificationFailedException("Verification failed: invalid verification code!");
+        }
+
         user.setEnabled(true);
         userRepository.save(user);
+        userDetailsService.evictUser(user.getEmail());
+        verificationCodeRepository.delete(verificationCode);
 
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(
                 ApiResponseDto.builder().isSuccess(true)
@@ -132,49 +168,109 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    public ResponseEntity<ApiResponseDto<?>> authenticateUser(SignInRequestDto signInRequestDto) {
+    public ResponseEntity<ApiResponseDto<?>> authenticateUser(SignInRequestDto signInRequestDto, String clientIp)
+            throws LoginThrottledException {
+        if (!loginRateLimiter.tryAcquire(signInRequestDto.getEmail(), clientIp)) {
+            throw new LoginThrottledException("Too many sign-in attempts. Try again later!");
+        }
+
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(signInRequestDto.getEmail(), signInRequestDto.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
-
-        JwtResponseDto jwtResponseDto = JwtResponseDto.builder()
-                .username(userDetails.getUsername())
-                .email(userDetails.getEmail())
-                .id(userDetails.getId())
-                .token(jwt)
-                .type("Bearer ")
-                .roles(roles)
-                .build();
 
         return ResponseEntity.ok(ApiResponseDto.builder()
                 .isSuccess(true)
                 .message("Authentication successfull!")
-                .response(jwtResponseDto)
+                .response(createJwtResponse(userDetails))
                 .build()
         );
     }
 
     @Override
-    public ResponseEntity<ApiResponseDto<?>> validateToken(String token) {
+    public ResponseEntity<ApiResponseDto<?>> refreshToken(RefreshTokenRequestDto refreshTokenRequestDto)
+            throws TokenRefreshFailedException {
+        // the presented token is removed here, so each refresh token can be used exactly once
+        RefreshToken refreshToken = refreshTokenService.consumeRefreshToken(refreshTokenRequestDto.getRefreshToken());
+
+        UserDetailsImpl userDetails;
         try {
-            if (jwtUtils.validateJwtToken(token)) {
-                String username = jwtUtils.getUserNameFromJwtToken(token);
+            userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(refreshToken.getEmail());
+        } catch (UsernameNotFoundException e) {
+            throw new TokenRefreshFailedException("Token refresh failed: user no longer exists!");
+        }
+        if (!userDetails.isEnabled()) {
+            throw new TokenRefreshFailedException("Token refresh failed: user account is disabled!");
+        }
 
-                UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
-                List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+        return ResponseEntity.ok(ApiResponseDto.builder()
+                .isSuccess(true)
+                .message("Token refreshed successfully!")
+                .response(createJwtResponse(userDetails))
+                .build()
+        );
+    }
 
-                UserAuthorityDto userAuthorityDto = UserAuthorityDto.builder()
-                        .userId(userDetails.getId())
-                        .authorities(roles)
-                        .build();
+    @Override
+    public ResponseEntity<ApiResponseDto<?>> logout(String token, RefreshTokenRequestDto refreshTokenRequestDto) {
+        if (refreshTokenRequestDto != null && refreshTokenRequestDto.getRefreshToken() != null) {
+            refreshTokenService.revokeRefreshToken(refreshTokenRequestDto.getRefreshToken());
+        }
 
+        Claims claims = jwtUtils.parseJwtToken(token);
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    ApiResponseDto.builder()
+                            .isSuccess(false)
+                            .message("Logout failed: invalid token!")
+                            .build()
+            );
+        }
+
+        // tokens issued before the jti claim was added cannot be revoked and simply run out
+        if (claims.getId() != null) {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .tokenId(claims.getId())
+                    .expiryTime(claims.getExpiration())
+                    .revokedAt(new Date())
+                    .build());
+            tokenRevocationList.revoke(claims.getId(), claims.getExpiration().getTime());
+        }
+        tokenValidationCache.invalidateToken(token);
+
+        return ResponseEntity.ok(
+                ApiResponseDto.builder()
+                        .isSuccess(true)
+                        .message("Logged out successfully!")
+                        .build()
+        );
+    }
+
+    @Override
+    public ResponseEntity<ApiResponseDto<?>> getRevokedTokens(long since) {
+        long asOf = System.currentTimeMillis();
+        List<RevokedTokenDto> tokens = revokedTokenRepository.findByRevokedAtAfter(new Date(since)).stream()
+                .map(revokedToken -> RevokedTokenDto.builder()
+                        .tokenId(revokedToken.getTokenId())
+                        .expiresAt(revokedToken.getExpiryTime().getTime())
+                        .build())
+                .toList();
+
+        return ResponseEntity.ok(
+                ApiResponseDto.builder()
+                        .isSuccess(true)
+                        .response(RevokedTokensDto.builder().asOf(asOf).tokens(tokens).build())
+                        .build()
+        );
+    }
+
+    @Override
+    public ResponseEntity<ApiResponseDto<?>> validateToken(String token) {
+        try {
+            UserAuthorityDto userAuthorityDto = resolveUserAuthority(token);
+            if (userAuthorityDto != null) {
                 return ResponseEntity.ok(
                         ApiResponseDto.builder()
                                 .isSuccess(true)
@@ -199,18 +295,45 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    @Override
+    public ResponseEntity<ApiResponseDto<?>> validateTokens(List<String> tokens) {
+        if (tokens.size() > MAX_TOKEN_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(
+                    ApiResponseDto.builder()
+                            .isSuccess(false)
+                            .message("At most " + MAX_TOKEN_BATCH_SIZE + " tokens can be validated at once!")
+                            .build()
+            );
+        }
+
+        // results are returned in the same order as the submitted tokens
+        List<TokenValidationResultDto> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(validateTokenForBatch(token));
+        }
+
+        return ResponseEntity.ok(
+                ApiResponseDto.builder()
+                        .isSuccess(true)
+                        .response(results)
+                        .build()
+        );
+    }
+
     @Override
     public ResponseEntity<ApiResponseDto<?>> resendVerificationCode(String email) throws UserNotFoundException, ServiceLogicException {
 
         User user = userRepository.findByEmail(email).orElseThrow(() -> new UserNotFoundException("User not found with email " + email));
 
         try {
-            user.setVerificationCode(generateVerificationCode());
-            user.setVerificationCodeExpiryTime(calculateCodeExpirationTime());
             user.setEnabled(false);
 
             userRepository.save(user);
-            sendRegistrationVerificationEmail(user);
+            userDetailsService.evictUser(user.getEmail());
+
+            verificationCodeRepository.deleteByUserId(user.getId());
+            VerificationCode verificationCode = issueVerificationCode(user);
+            sendRegistrationVerificationEmail(user, verificationCode.getCode());
 
 
             return ResponseEntity.status(HttpStatus.OK).body(ApiResponseDto.builder().isSuccess(true)
@@ -224,12 +347,12 @@ public class AuthServiceImpl implements AuthService {
 
     }
 
-    private void sendRegistrationVerificationEmail(User user) {
+    private void sendRegistrationVerificationEmail(User user, String verificationCode) {
         String subject = "Please verify your registration";
         String content = "Dear " + user.getUsername() + ",<br><br>"
                 + "<p>Thank you for joining us! We are glad to have you on board.</p><br>"
                 + "<p>To complete the sign up process, enter the verification code in your device.</p><br>"
-                + "<p>verification code: <strong>" + user.getVerificationCode() + "</strong></p><br>"
+                + "<p>verification code: <strong>" + verificationCode + "</strong></p><br>"
                 + "<p><strong>Please note that the above verification code will be expired within 15 minutes.</strong></p>"
                 + "<br>Thank you,<br>"
                 + "Purely.";
@@ -253,13 +376,57 @@ public class AuthServiceImpl implements AuthService {
                 .email(signUpRequestDto.getEmail())
                 .username(signUpRequestDto.getUserName())
                 .password(passwordEncoder.encode(signUpRequestDto.getPassword()))
-                .verificationCode(generateVerificationCode())
-                .verificationCodeExpiryTime(calculateCodeExpirationTime())
                 .enabled(false) 
                 .roles(determineRoles(signUpRequestDto.getRoles()))
                 .build();
     }
 
+    private JwtResponseDto createJwtResponse(UserDetailsImpl userDetails) {
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+
+        return JwtResponseDto.builder()
+                .username(userDetails.getUsername())
+                .email(userDetails.getEmail())
+                .id(userDetails.getId())
+                .token(jwtUtils.generateJwtToken(userDetails))
+                .refreshToken(refreshTokenService.createRefreshToken(userDetails))
+                .type("Bearer ")
+                .roles(roles)
+                .build();
+    }
+
+    private User insertUser(User user) throws UserAlreadyExistsException {
+        // the unique indexes from MongoIndexInitializer make the insert itself the existence check
+        try {
+            return userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            WriteError error = e.getCause() instanceof MongoWriteException writeException ? writeException.getError() : null;
+            if (MongoIndexInitializer.USERNAME_INDEX.equals(MongoIndexInitializer.violatedIndex(error))) {
+                throw new UserAlreadyExistsException("Registration Failed: username is already taken!");
+            }
+            throw new UserAlreadyExistsException("Registration Failed: email is already taken!");
+        }
+    }
+
+    private VerificationCode issueVerificationCode(User user) {
+        // codes are short, so a collision with another pending code is possible; the unique index rejects it
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return verificationCodeRepository.insert(VerificationCode.builder()
+                        .code(generateVerificationCode())
+                        .userId(user.getId())
+                        .expiryTime(calculateCodeExpirationTime())
+                        .build());
+            } catch (DuplicateKeyException e) {
+                if (attempt >= MAX_VERIFICATION_CODE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
     private String generateVerificationCode() {
         return String.valueOf((int) (Math.random() * 1000000));
     }
@@ -282,8 +449,78 @@ public class AuthServiceImpl implements AuthService {
         return roles;
     }
 
-    private void removeDisabledUser(String id) {
-        userRepository.deleteById(id);
+    private TokenValidationResultDto validateTokenForBatch(String token) {
+        try {
+            UserAuthorityDto userAuthorityDto = resolveUserAuthority(token);
+            if (userAuthorityDto != null) {
+                return TokenValidationResultDto.builder()
+                        .isValid(true)
+                        .userAuthority(userAuthorityDto)
+                        .build();
+            }
+            return TokenValidationResultDto.builder()
+                    .isValid(false)
+                    .message("Authentication failed!")
+                    .build();
+        }catch (Exception e) {
+            return TokenValidationResultDto.builder()
+                    .isValid(false)
+                    .message("Unable to authorize user right now. Try again later!")
+                    .build();
+        }
+    }
+
+    private UserAuthorityDto resolveUserAuthority(String token) {
+        UserAuthorityDto cachedAuthority = tokenValidationCache.get(token);
+        if (cachedAuthority != null) {
+            return cachedAuthority;
+        }
+
+        long cacheGeneration = tokenValidationCache.currentGeneration();
+        Claims claims = jwtUtils.parseJwtToken(token);
+        if (claims == null) {
+            return null;
+        }
+        if (tokenRevocationList.isRevoked(claims.getId())) {
+            return null;
+        }
+
+        UserAuthorityDto userAuthorityDto = userAuthorityFromClaims(claims);
+        if (userAuthorityDto == null) {
+            // tokens issued before userId/authorities claims were added need the user lookup
+            userAuthorityDto = loadUserAuthority(claims.getSubject());
+        }
+        tokenValidationCache.put(token, claims.getSubject(), userAuthorityDto, claims.getExpiration(), cacheGeneration);
+        return userAuthorityDto;
+    }
+
+    private UserAuthorityDto userAuthorityFromClaims(Claims claims) {
+        String userId = claims.get(JwtUtils.USER_ID_CLAIM, String.class);
+        List<?> authorities = claims.get(JwtUtils.AUTHORITIES_CLAIM, List.class);
+        if (userId == null || authorities == null) {
+            return null;
+        }
+
+        return UserAuthorityDto.builder()
+                .userId(userId)
+                .authorities(authorities.stream().map(String::valueOf).toList())
+                .build();
+    }
+
+    private UserAuthorityDto loadUserAuthority(String username) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+        List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+
+        return UserAuthorityDto.builder()
+                .userId(userDetails.getId())
+                .authorities(roles)
+                .build();
+    }
+
+    private void removeDisabledUser(User user) {
+        userRepository.deleteById(user.getId());
+        verificationCodeRepository.deleteByUserId(user.getId());
+        userDetailsService.evictUser(user.getEmail());
     }
 
 
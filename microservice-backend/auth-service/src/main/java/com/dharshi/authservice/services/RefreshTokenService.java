@@ -0,0 +1,13 @@
+package com.dharshi.authservice.services;
+
+import com.dharshi.authservice.exceptions.TokenRefreshFailedException;
+import com.dharshi.authservice.modals.RefreshToken;
+import com.dharshi.authservice.security.UserDetailsImpl;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface RefreshTokenService {
+    String createRefreshToken(UserDetailsImpl userDetails);
+    RefreshToken consumeRefreshToken(String refreshToken) throws TokenRefreshFailedException;
+    void revokeRefreshToken(String refreshToken);
+}
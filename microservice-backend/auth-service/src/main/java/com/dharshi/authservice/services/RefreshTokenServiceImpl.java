@@ -0,0 +1,74 @@
+package com.dharshi.authservice.services;
+
+import com.dharshi.authservice.exceptions.TokenRefreshFailedException;
+import com.dharshi.authservice.modals.RefreshToken;
+import com.dharshi.authservice.repositories.RefreshTokenRepository;
+import com.dharshi.authservice.security.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+
+@Component
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.refreshTokenExpirationMs}")
+    private long refreshTokenExpirationMs;
+
+    @Override
+    public String createRefreshToken(UserDetailsImpl userDetails) {
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        refreshTokenRepository.insert(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .userId(userDetails.getId())
+                .email(userDetails.getEmail())
+                .expiryTime(new Date(System.currentTimeMillis() + refreshTokenExpirationMs))
+                .build());
+
+        return token;
+    }
+
+    @Override
+    public RefreshToken consumeRefreshToken(String refreshToken) throws TokenRefreshFailedException {
+        RefreshToken storedToken = refreshTokenRepository.deleteByTokenHash(hash(refreshToken));
+
+        if (storedToken == null) {
+            throw new TokenRefreshFailedException("Token refresh failed: invalid refresh token!");
+        }
+        // the TTL monitor only purges expired tokens about once a minute, so expiry is still checked here
+        if (System.currentTimeMillis() > storedToken.getExpiryTime().getTime()) {
+            throw new TokenRefreshFailedException("Token refresh failed: expired refresh token!");
+        }
+        return storedToken;
+    }
+
+    @Override
+    public void revokeRefreshToken(String refreshToken) {
+        refreshTokenRepository.deleteByTokenHash(hash(refreshToken));
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -7,4 +7,5 @@ import org.springframework.stereotype.Service;
 @Service
 public interface RoleService {
     Role findByName(ERole eRole);
-}
\ No newline at end of file
+    void refreshRoles();
+}
@@ -6,15 +6,34 @@ import com.dharshi.authservice.repositories.RoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
 @Component
 public class RoleServiceImpl implements RoleService {
 
     @Autowired
     private RoleRepository roleRepository;
 
+    // the ERole set is fixed, so roles are read once and swapped as a whole on refresh
+    private volatile Map<ERole, Role> roles = Collections.emptyMap();
+
     @Override
     public Role findByName(ERole eRole) {
-        return roleRepository.findByName(eRole)
-                .orElseThrow(() -> new RuntimeException("Role is not found."));
+        Role role = roles.get(eRole);
+        if (role == null) {
+            throw new RuntimeException("Role is not found.");
+        }
+        return role;
+    }
+
+    @Override
+    public void refreshRoles() {
+        Map<ERole, Role> loadedRoles = new EnumMap<>(ERole.class);
+        for (Role role : roleRepository.findAll()) {
+            loadedRoles.put(role.getName(), role);
+        }
+        roles = Collections.unmodifiableMap(loadedRoles);
     }
 }
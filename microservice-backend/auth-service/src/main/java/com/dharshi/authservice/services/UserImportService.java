@@ -0,0 +1,13 @@
+package com.dharshi.authservice.services;
+
+import com.dharshi.authservice.dtos.ApiResponseDto;
+import com.dharshi.authservice.exceptions.ServiceLogicException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+
+@Service
+public interface UserImportService {
+    ResponseEntity<ApiResponseDto<?>> importUsers(InputStream jsonArray, boolean enabled) throws ServiceLogicException;
+}
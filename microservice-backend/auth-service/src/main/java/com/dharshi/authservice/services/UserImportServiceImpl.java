@@ -0,0 +1,271 @@
+package com.dharshi.authservice.services;
+
+import com.dharshi.authservice.configs.MongoIndexInitializer;
+import com.dharshi.authservice.dtos.ApiResponseDto;
+import com.dharshi.authservice.dtos.SignUpRequestDto;
+import com.dharshi.authservice.dtos.UserImportFailureDto;
+import com.dharshi.authservice.dtos.UserImportResultDto;
+import com.dharshi.authservice.exceptions.RoleNotFoundException;
+import com.dharshi.authservice.exceptions.ServiceLogicException;
+import com.dharshi.authservice.factories.RoleFactory;
+import com.dharshi.authservice.modals.Role;
+import com.dharshi.authservice.modals.User;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Imports users from a JSON array of sign-up records without holding the whole array in memory.
+ * Records are read in batches; each batch is hashed on a dedicated fork-join pool and written with one
+ * unordered bulk insert, so a duplicate or invalid record only fails itself.
+ */
+@Component
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private RoleFactory roleFactory;
+
+    @Value("${app.userImport.batchSize}")
+    private int BATCH_SIZE;
+
+    // imports bypass the bounded sign-in encoder so they cannot starve interactive logins of hashing threads
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+    private final ForkJoinPool hashingPool;
+
+    public UserImportServiceImpl(@Value("${app.userImport.hashingParallelism}") int hashingParallelism) {
+        this.hashingPool = new ForkJoinPool(hashingParallelism);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    @Override
+    public ResponseEntity<ApiResponseDto<?>> importUsers(InputStream jsonArray, boolean enabled) throws ServiceLogicException {
+        ImportState state = new ImportState();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonArray)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return ResponseEntity.badRequest().body(
+                        ApiResponseDto.builder()
+                                .isSuccess(false)
+                                .message("Import failed: request body must be a JSON array!")
+                                .build()
+                );
+            }
+
+            List<ImportRecord> batch = new ArrayList<>(BATCH_SIZE);
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                    // each element is read as a tree first, so a record of the wrong shape only fails itself
+                    JsonNode element = parser.readValueAsTree();
+                    int index = state.received++;
+                    SignUpRequestDto request;
+                    try {
+                        request = objectMapper.treeToValue(element, SignUpRequestDto.class);
+                    } catch (JsonProcessingException e) {
+                        state.failures.add(UserImportFailureDto.builder()
+                                .index(index)
+                                .email(element.path("email").asText(null))
+                                .reason("Invalid record: " + e.getOriginalMessage())
+                                .build());
+                        continue;
+                    }
+
+                    batch.add(new ImportRecord(index, request));
+                    if (batch.size() == BATCH_SIZE) {
+                        importBatch(batch, enabled, state);
+                        batch.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // the parser cannot resynchronise after broken JSON, so the rest of the stream is dropped
+                state.failures.add(UserImportFailureDto.builder()
+                        .index(state.received)
+                        .reason("Malformed JSON, import stopped: " + e.getOriginalMessage())
+                        .build());
+            }
+            importBatch(batch, enabled, state);
+        } catch (IOException e) {
+            log.error("User import failed: {}", e.getMessage());
+            throw new ServiceLogicException("Import failed: Something went wrong!");
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ApiResponseDto.builder()
+                        .isSuccess(state.failures.isEmpty())
+                        .message("Imported " + state.imported + " of " + state.received + " users")
+                        .response(UserImportResultDto.builder()
+                                .received(state.received)
+                                .imported(state.imported)
+                                .failed(state.failures.size())
+                                .failures(state.failures)
+                                .build())
+                        .build()
+        );
+    }
+
+    private void importBatch(List<ImportRecord> batch, boolean enabled, ImportState state) throws ServiceLogicException {
+        List<ImportRecord> accepted = new ArrayList<>(batch.size());
+        List<Set<Role>> acceptedRoles = new ArrayList<>(batch.size());
+        for (ImportRecord record : batch) {
+            String violation = validate(record.request());
+            if (violation != null) {
+                state.fail(record, violation);
+                continue;
+            }
+            try {
+                acceptedRoles.add(resolveRoles(record.request().getRoles(), state.roles));
+                accepted.add(record);
+            } catch (RoleNotFoundException e) {
+                state.fail(record, e.getMessage());
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hashPasswords(accepted);
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            SignUpRequestDto request = accepted.get(i).request();
+            users.add(User.builder()
+                    .email(request.getEmail())
+                    .username(request.getUserName())
+                    .password(hashes.get(i))
+                    .enabled(enabled)
+                    .roles(acceptedRoles.get(i))
+                    .build());
+        }
+
+        // unordered: Mongo keeps inserting past a failed document and reports each failure by its position
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        bulkOperations.insert(users);
+        try {
+            state.imported += bulkOperations.execute().getInsertedCount();
+        } catch (BulkOperationException e) {
+            state.imported += e.getResult().getInsertedCount();
+            for (BulkWriteError error : e.getErrors()) {
+                state.fail(accepted.get(error.getIndex()), describe(error));
+            }
+        }
+    }
+
+    private List<String> hashPasswords(List<ImportRecord> records) throws ServiceLogicException {
+        List<Callable<String>> tasks = records.stream()
+                .map(record -> (Callable<String>) () -> passwordEncoder.encode(record.request().getPassword()))
+                .toList();
+        try {
+            List<String> hashes = new ArrayList<>(tasks.size());
+            for (Future<String> future : hashingPool.invokeAll(tasks)) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceLogicException("Import failed: password hashing was interrupted!");
+        } catch (ExecutionException e) {
+            log.error("Password hashing failed during import: {}", e.getCause().getMessage());
+            throw new ServiceLogicException("Import failed: Something went wrong!");
+        }
+    }
+
+    private Set<Role> resolveRoles(Set<String> strRoles, Map<String, Role> resolvedRoles) throws RoleNotFoundException {
+        Set<Role> roles = new HashSet<>();
+        for (String roleName : strRoles == null ? Set.of("user") : strRoles) {
+            Role role = resolvedRoles.get(roleName);
+            if (role == null) {
+                role = roleFactory.getInstance(roleName);
+                resolvedRoles.put(roleName, role);
+            }
+            roles.add(role);
+        }
+        return roles;
+    }
+
+    private String validate(SignUpRequestDto request) {
+        Set<ConstraintViolation<SignUpRequestDto>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.iterator().next().getMessage();
+    }
+
+    private String describe(BulkWriteError error) {
+        if (error.getCode() != DUPLICATE_KEY_ERROR) {
+            return error.getMessage();
+        }
+        if (MongoIndexInitializer.USERNAME_INDEX.equals(MongoIndexInitializer.violatedIndex(error))) {
+            return "username is already taken!";
+        }
+        return "email is already taken!";
+    }
+
+    private record ImportRecord(int index, SignUpRequestDto request) {
+    }
+
+    private static class ImportState {
+
+        private int received;
+
+        private int imported;
+
+        private final List<UserImportFailureDto> failures = new ArrayList<>();
+
+        // role names map to a handful of documents, so each is resolved once per import
+        private final Map<String, Role> roles = new HashMap<>();
+
+        void fail(ImportRecord record, String reason) {
+            failures.add(UserImportFailureDto.builder()
+                    .index(record.index())
+                    .email(record.request().getEmail())
+                    .reason(reason)
+                    .build());
+        }
+    }
+}
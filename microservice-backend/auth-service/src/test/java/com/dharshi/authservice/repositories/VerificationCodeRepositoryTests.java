@@ -0,0 +1,32 @@
+package com.dharshi.authservice.repositories;
+
+import com.dharshi.authservice.configs.MongoIndexInitializer;
+import com.dharshi.authservice.modals.VerificationCode;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class VerificationCodeRepositoryTests {
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Test
+	void findByCodeIsAnsweredFromTheCodeIndex() {
+		// the same filter VerificationCodeRepository.findByCode sends
+		Document plan = mongoTemplate.getCollection(mongoTemplate.getCollectionName(VerificationCode.class))
+				.find(new Document("code", "000000"))
+				.explain();
+		String queryPlanner = plan.get("queryPlanner", Document.class).toJson();
+
+		assertTrue(queryPlanner.contains("\"indexName\": \"" + MongoIndexInitializer.VERIFICATION_CODE_INDEX + "\""), queryPlanner);
+		assertFalse(queryPlanner.contains("COLLSCAN"), queryPlanner);
+	}
+
+}
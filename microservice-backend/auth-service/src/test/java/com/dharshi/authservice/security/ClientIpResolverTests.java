@@ -0,0 +1,57 @@
+package com.dharshi.authservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientIpResolverTests {
+
+	private static final String GATEWAY = "10.0.0.3";
+	private static final String NGINX = "10.0.0.2";
+	private static final String CLIENT = "203.0.113.7";
+
+	private final ClientIpResolver clientIpResolver = new ClientIpResolver(2);
+
+	@Test
+	void resolvesTheAddressAppendedByNginx() {
+		assertEquals(CLIENT, clientIpResolver.resolve(request(CLIENT + ", " + NGINX)));
+	}
+
+	@Test
+	void spoofedLeadingEntryDoesNotChangeTheKey() {
+		String spoofed = clientIpResolver.resolve(request("198.51.100.1, " + CLIENT + ", " + NGINX));
+		String anotherSpoof = clientIpResolver.resolve(request("198.51.100.2, 192.0.2.9, " + CLIENT + ", " + NGINX));
+
+		assertEquals(CLIENT, spoofed);
+		assertEquals(CLIENT, anotherSpoof);
+	}
+
+	@Test
+	void rotatingSpoofedEntriesShareOneBucket() {
+		LoginRateLimiter loginRateLimiter = new LoginRateLimiter(new SimpleMeterRegistry(), 4, 100, 100, 100, 3, 1);
+
+		for (int i = 1; i <= 3; i++) {
+			String clientIp = clientIpResolver.resolve(request("198.51.100." + i + ", " + CLIENT + ", " + NGINX));
+			assertTrue(loginRateLimiter.tryAcquire("user" + i + "@example.com", clientIp));
+		}
+
+		String clientIp = clientIpResolver.resolve(request("198.51.100.99, " + CLIENT + ", " + NGINX));
+		assertFalse(loginRateLimiter.tryAcquire("user4@example.com", clientIp));
+	}
+
+	@Test
+	void fallsBackToTheConnectionWithoutProxies() {
+		assertEquals(GATEWAY, new ClientIpResolver(0).resolve(request("198.51.100.1")));
+	}
+
+	private MockHttpServletRequest request(String forwardedFor) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRemoteAddr(GATEWAY);
+		request.addHeader("X-Forwarded-For", forwardedFor);
+		return request;
+	}
+}
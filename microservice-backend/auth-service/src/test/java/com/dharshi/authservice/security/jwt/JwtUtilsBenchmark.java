@@ -0,0 +1,104 @@
+package com.dharshi.authservice.security.jwt;
+
+import com.dharshi.authservice.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of issuing and verifying access tokens with the key and parser JwtUtils builds once, next to
+ * baselines that work the way JwtUtils did before: key and parser rebuilt on every call, and every request
+ * parsing the token twice (validateJwtToken, then getUserNameFromJwtToken).
+ * Not part of the test run, start it from main or with the JMH runner against the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtUtilsBenchmark {
+
+	private static final String JWT_SECRET = "|=================spring=boot=reactjs=purely===================|";
+
+	private JwtUtils jwtUtils;
+
+	private UserDetailsImpl user;
+
+	private String token;
+
+	@Setup
+	public void setUp() {
+		jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret", JWT_SECRET);
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+		jwtUtils.init();
+
+		user = new UserDetailsImpl("65f0c0ffee0000000000beef", "benchmark", "benchmark@purely.test", null,
+				List.of(new SimpleGrantedAuthority("ROLE_USER")), true);
+		token = jwtUtils.generateJwtToken(user);
+	}
+
+	@Benchmark
+	public String baselineGenerate() {
+		// the same claims as JwtUtils.generateJwtToken, only the key is derived from the secret per call
+		return Jwts.builder()
+				.setSubject(user.getEmail())
+				.setId(UUID.randomUUID().toString())
+				.claim(JwtUtils.USER_ID_CLAIM, user.getId())
+				.claim(JwtUtils.AUTHORITIES_CLAIM, List.of("ROLE_USER"))
+				.setIssuedAt(new Date())
+				.setExpiration(new Date(System.currentTimeMillis() + 86400000))
+				.signWith(baselineKey(), SignatureAlgorithm.HS256)
+				.compact();
+	}
+
+	@Benchmark
+	public String baselineValidate() {
+		Jwts.parserBuilder().setSigningKey(baselineKey()).build().parse(token);
+		return Jwts.parserBuilder().setSigningKey(baselineKey()).build().parseClaimsJws(token).getBody().getSubject();
+	}
+
+	@Benchmark
+	public String generate() {
+		return jwtUtils.generateJwtToken(user);
+	}
+
+	@Benchmark
+	public Claims validate() {
+		return jwtUtils.parseJwtToken(token);
+	}
+
+	private Key baselineKey() {
+		return Keys.hmacShaKeyFor(Decoders.BASE64.decode(JWT_SECRET));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JwtUtilsBenchmark.class.getSimpleName()).build()).run();
+	}
+}
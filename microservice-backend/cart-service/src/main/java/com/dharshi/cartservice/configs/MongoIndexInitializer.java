@@ -0,0 +1,98 @@
+package com.dharshi.cartservice.configs;
+
+import com.dharshi.cartservice.modals.Cart;
+import com.dharshi.cartservice.modals.CartItem;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges carts that were created twice for the same user and then creates the unique userId index that
+ * cart creation relies on. The application refuses to start if the index is missing.
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer {
+
+    public static final String CART_USER_INDEX = "userId_unique";
+    public static final String CART_PRODUCT_INDEX = "cartItems.productId";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener
+    public void createIndexes(ContextRefreshedEvent event) {
+        mergeDuplicateCarts();
+        // carts created before versioning start at 0 so their ETags can be matched by If-Match
+        mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L), Cart.class);
+
+        IndexOperations cartIndexes = mongoTemplate.indexOps(Cart.class);
+        cartIndexes.ensureIndex(new Index().on("userId", Sort.Direction.ASC).unique().named(CART_USER_INDEX));
+        // multikey index used by CartRepriceJob to find the carts holding a batch of products
+        cartIndexes.ensureIndex(new Index().on("cartItems.productId", Sort.Direction.ASC).named(CART_PRODUCT_INDEX));
+
+        boolean present = cartIndexes.getIndexInfo().stream()
+                .anyMatch(index -> index.getName().equals(CART_USER_INDEX) && index.isUnique());
+        if (!present) {
+            throw new IllegalStateException("Unique index " + CART_USER_INDEX + " is missing");
+        }
+        log.info("Indexes are in place on carts");
+    }
+
+    private void mergeDuplicateCarts() {
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.group("userId").count().as("count").push("_id").as("cartIds"),
+                Aggregation.match(Criteria.where("count").gt(1))
+        );
+
+        List<Document> groups = mongoTemplate.aggregate(duplicates, Cart.class, Document.class).getMappedResults();
+        for (Document group : groups) {
+            List<?> cartIds = group.get("cartIds", List.class);
+            List<Cart> carts = mongoTemplate.find(
+                    Query.query(Criteria.where("_id").in(cartIds)).with(Sort.by("_id")), Cart.class);
+            if (carts.size() < 2) {
+                continue;
+            }
+
+            // the oldest cart survives and receives the summed quantities of every duplicate
+            Map<String, Integer> quantities = new LinkedHashMap<>();
+            for (Cart cart : carts) {
+                if (cart.getCartItems() == null) {
+                    continue;
+                }
+                for (CartItem cartItem : cart.getCartItems()) {
+                    quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+                }
+            }
+            Set<CartItem> mergedItems = new HashSet<>();
+            quantities.forEach((productId, quantity) ->
+                    mergedItems.add(CartItem.builder().productId(productId).quantity(quantity).build()));
+
+            Cart keeper = carts.get(0);
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(keeper.getId())),
+                    new Update().set("cartItems", mergedItems), Cart.class);
+            List<String> duplicateIds = carts.subList(1, carts.size()).stream().map(Cart::getId).toList();
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(duplicateIds)), Cart.class);
+
+            log.info("Merged {} duplicate carts into cart {} for user {}", duplicateIds.size(), keeper.getId(), keeper.getUserId());
+        }
+    }
+}
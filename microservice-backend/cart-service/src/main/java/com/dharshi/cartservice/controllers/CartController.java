@@ -1,16 +1,23 @@
 package com.dharshi.cartservice.controllers;
 
 import com.dharshi.cartservice.dtos.ApiResponseDto;
+import com.dharshi.cartservice.dtos.CartItemDeltaDto;
 import com.dharshi.cartservice.dtos.CartItemRequestDto;
+import com.dharshi.cartservice.exceptions.CartQuantityLimitException;
+import com.dharshi.cartservice.exceptions.CartVersionConflictException;
 import com.dharshi.cartservice.exceptions.ResourceNotFoundException;
 import com.dharshi.cartservice.exceptions.ServiceLogicException;
 import com.dharshi.cartservice.services.CartService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/cart")
 public class CartController {
@@ -20,23 +27,41 @@ public class CartController {
 
     @PostMapping("/add")
     @PreAuthorize("hasRole('ROLE_USER')")
-    ResponseEntity<ApiResponseDto<?>> addItemToCart(Authentication authentication, @RequestBody CartItemRequestDto requestDto)
-            throws ResourceNotFoundException, ServiceLogicException{
-        return cartService.addItemToCart(authentication.getPrincipal().toString(), requestDto);
+    ResponseEntity<ApiResponseDto<?>> addItemToCart(Authentication authentication, @RequestBody CartItemRequestDto requestDto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ResourceNotFoundException, CartVersionConflictException, CartQuantityLimitException, ServiceLogicException{
+        return cartService.addItemToCart(authentication.getPrincipal().toString(), requestDto, ifMatch);
+    }
+
+    @PostMapping("/add/bulk")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    ResponseEntity<ApiResponseDto<?>> addItemsToCart(Authentication authentication, @RequestBody @Valid List<CartItemDeltaDto> itemDeltas,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ResourceNotFoundException, CartVersionConflictException, CartQuantityLimitException, ServiceLogicException{
+        return cartService.addItemsToCart(authentication.getPrincipal().toString(), itemDeltas, ifMatch);
     }
 
     @GetMapping("/get/byUser")
     @PreAuthorize("hasRole('ROLE_USER')")
-    ResponseEntity<ApiResponseDto<?>> getCartItemsByUser(Authentication authentication)
+    ResponseEntity<ApiResponseDto<?>> getCartItemsByUser(Authentication authentication,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws ResourceNotFoundException, ServiceLogicException{
+        return cartService.getCartItemsByUser(authentication.getPrincipal().toString(), ifNoneMatch);
+    }
+
+    @GetMapping("/get/byUserId")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    ResponseEntity<ApiResponseDto<?>> getCartItemsByUserId(@RequestParam String userId)
             throws ResourceNotFoundException, ServiceLogicException{
-        return cartService.getCartItemsByUser(authentication.getPrincipal().toString());
+        return cartService.getCartItemsByUserId(userId);
     }
 
     @DeleteMapping("/remove")
     @PreAuthorize("hasRole('ROLE_USER')")
-    ResponseEntity<ApiResponseDto<?>> removeCartItemFromCart(Authentication authentication, @RequestParam String productId)
-            throws ServiceLogicException, ResourceNotFoundException {
-        return cartService.removeCartItemFromCart(authentication.getPrincipal().toString(), productId);
+    ResponseEntity<ApiResponseDto<?>> removeCartItemFromCart(Authentication authentication, @RequestParam String productId,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ServiceLogicException, ResourceNotFoundException, CartVersionConflictException {
+        return cartService.removeCartItemFromCart(authentication.getPrincipal().toString(), productId, ifMatch);
     }
 
     @GetMapping("/get/byId")
@@ -47,8 +72,10 @@ public class CartController {
 
     @DeleteMapping("/clear/byId")
     @PreAuthorize("hasRole('ROLE_USER')")
-    ResponseEntity<ApiResponseDto<?>> clearCartById(@RequestParam String id) throws ResourceNotFoundException, ServiceLogicException {
-        return cartService.clearCartById(id);
+    ResponseEntity<ApiResponseDto<?>> clearCartById(@RequestParam String id,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ResourceNotFoundException, CartVersionConflictException, ServiceLogicException {
+        return cartService.clearCartById(id, ifMatch);
     }
 
 }
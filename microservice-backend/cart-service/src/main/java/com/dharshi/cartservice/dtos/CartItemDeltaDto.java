@@ -0,0 +1,19 @@
+package com.dharshi.cartservice.dtos;
+
+import com.dharshi.cartservice.modals.CartItem;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartItemDeltaDto {
+    private String productId;
+
+    @Min(value = -CartItem.MAX_QUANTITY, message = "Quantity change must be at least -" + CartItem.MAX_QUANTITY + "!")
+    @Max(value = CartItem.MAX_QUANTITY, message = "Quantity change must be at most " + CartItem.MAX_QUANTITY + "!")
+    private int quantityDelta;
+}
@@ -13,5 +13,6 @@ public class CartItemResponseDto {
     private double amount;
     private String imageUrl;
     private String categoryName;
+    private boolean unavailable;
 
 }
@@ -1,12 +1,18 @@
 package com.dharshi.cartservice.exceptionHandlers;
 
 import com.dharshi.cartservice.dtos.ApiResponseDto;
+import com.dharshi.cartservice.exceptions.CartQuantityLimitException;
+import com.dharshi.cartservice.exceptions.CartVersionConflictException;
 import com.dharshi.cartservice.exceptions.ResourceNotFoundException;
 import com.dharshi.cartservice.exceptions.ServiceLogicException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @RestControllerAdvice
 public class RestExceptionHandler {
@@ -21,6 +27,43 @@ public class RestExceptionHandler {
         );
     }
 
+    @ExceptionHandler(value = CartVersionConflictException.class)
+    public ResponseEntity<ApiResponseDto<?>> CartVersionConflictExceptionHandler(CartVersionConflictException exception) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(
+                ApiResponseDto.builder()
+                        .isSuccess(false)
+                        .message(exception.getMessage())
+                        .build()
+        );
+    }
+
+    @ExceptionHandler(value = CartQuantityLimitException.class)
+    public ResponseEntity<ApiResponseDto<?>> CartQuantityLimitExceptionHandler(CartQuantityLimitException exception) {
+        return ResponseEntity.badRequest().body(
+                ApiResponseDto.builder()
+                        .isSuccess(false)
+                        .message(exception.getMessage())
+                        .build()
+        );
+    }
+
+    // @Valid on a list body is enforced through method validation, its violations arrive here
+    @ExceptionHandler(value = HandlerMethodValidationException.class)
+    public ResponseEntity<ApiResponseDto<?>> HandlerMethodValidationExceptionHandler(HandlerMethodValidationException exception) {
+
+        List<String> errorMessage = new ArrayList<>();
+
+        exception.getAllErrors().forEach(error -> {
+            errorMessage.add(error.getDefaultMessage());
+        });
+        return ResponseEntity.badRequest().body(
+                ApiResponseDto.builder()
+                        .isSuccess(false)
+                        .message(errorMessage.toString())
+                        .build()
+        );
+    }
+
     @ExceptionHandler(value = ResourceNotFoundException.class)
     public ResponseEntity<ApiResponseDto<?>> ResourceNotFoundExceptionHandler(ResourceNotFoundException exception) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
@@ -0,0 +1,7 @@
+package com.dharshi.cartservice.exceptions;
+
+public class CartQuantityLimitException extends Exception{
+    public CartQuantityLimitException(String message) {
+        super(message);
+    }
+}
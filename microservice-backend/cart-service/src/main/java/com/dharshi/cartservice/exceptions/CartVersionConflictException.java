@@ -0,0 +1,7 @@
+package com.dharshi.cartservice.exceptions;
+
+public class CartVersionConflictException extends Exception{
+    public CartVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -7,10 +7,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient("PRODUCT-SERVICE")
 public interface ProductService {
 
     @GetMapping("/product/get/byId")
     ResponseEntity<ApiResponseDto<ProductDto>> getProductById(@RequestParam String id);
 
+    @GetMapping("/product/get/byIds")
+    ResponseEntity<ApiResponseDto<List<ProductDto>>> getProductsByIds(@RequestParam List<String> ids);
+
 }
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Set;
@@ -23,4 +24,13 @@ public class Cart {
 
     private Set<CartItem> cartItems;
 
+    // maintained together with cartItems by every mutation
+    private int noOfCartItems;
+
+    private double subtotal;
+
+    // bumped by every change to the cart, served as its ETag
+    @Version
+    private Long version;
+
 }
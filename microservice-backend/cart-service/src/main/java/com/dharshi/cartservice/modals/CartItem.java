@@ -11,8 +11,23 @@ import lombok.NoArgsConstructor;
 @Builder
 public class CartItem {
 
+    // upper bound of a line quantity, a single bulk change is bounded by it as well
+    public static final int MAX_QUANTITY = 1000;
+
     private String productId;
 
     private int quantity;
 
+    // product snapshot, kept current by CartRepriceJob so a cart can be rendered without PRODUCT-SERVICE
+    private String productName;
+
+    private double price;
+
+    private String imageUrl;
+
+    private String categoryName;
+
+    // set when PRODUCT-SERVICE no longer knows the product, such lines count towards no total
+    private boolean unavailable;
+
 }
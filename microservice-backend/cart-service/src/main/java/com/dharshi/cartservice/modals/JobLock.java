@@ -0,0 +1,26 @@
+package com.dharshi.cartservice.modals;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "jobLocks")
+public class JobLock {
+
+    @Id
+    private String name;
+
+    private String owner;
+
+    private Date lockedUntil;
+
+}
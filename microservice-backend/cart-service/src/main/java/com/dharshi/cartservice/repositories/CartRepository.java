@@ -4,7 +4,7 @@ package com.dharshi.cartservice.repositories;
 import com.dharshi.cartservice.modals.Cart;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface CartRepository extends MongoRepository<Cart, String> {
+public interface CartRepository extends MongoRepository<Cart, String>, CartRepositoryCustom {
     Cart findByUserId(String userId);
     boolean existsByUserId(String userId);
 
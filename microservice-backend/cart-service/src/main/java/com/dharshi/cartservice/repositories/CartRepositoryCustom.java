@@ -0,0 +1,71 @@
+package com.dharshi.cartservice.repositories;
+
+import com.dharshi.cartservice.exceptions.CartQuantityLimitException;
+import com.dharshi.cartservice.modals.Cart;
+import com.dharshi.cartservice.modals.CartItem;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Every mutation bumps the cart version and keeps noOfCartItems and subtotal in step with the items.
+ * When {@code expectedVersion} is given the mutation only applies to that version of the cart.
+ */
+public interface CartRepositoryCustom {
+
+    /**
+     * Returns the user's cart, creating an empty one in the same round trip if the user has none.
+     */
+    Cart findOrCreateByUserId(String userId);
+
+    /**
+     * Adds {@code quantityDelta} to the item's quantity, pushing the snapshot with quantity 1 if the cart does not
+     * hold the product yet. Decrements never take an existing item below 1.
+     *
+     * @param snapshot the product as it is now, its quantity is ignored
+     * @return the cart version after the change, or null if the cart is not at {@code expectedVersion}
+     * @throws CartQuantityLimitException if an increment would take the item above {@link CartItem#MAX_QUANTITY}
+     */
+    Long addItemQuantity(String userId, CartItem snapshot, int quantityDelta, Long expectedVersion)
+            throws CartQuantityLimitException;
+
+    /**
+     * Applies all quantity changes in one conditional write. A line whose quantity drops to 0 or below is removed,
+     * a product that is not in the cart yet is added with its delta if that is positive.
+     *
+     * @param snapshots the current state of every product in {@code quantityDeltas}
+     * @return the cart version after the change, or null if the user has no cart at {@code expectedVersion}
+     * @throws CartQuantityLimitException if an increase would take a line above {@link CartItem#MAX_QUANTITY}, nothing is written
+     */
+    Long applyItemDeltas(String userId, Map<String, Integer> quantityDeltas, Map<String, CartItem> snapshots, Long expectedVersion)
+            throws CartQuantityLimitException;
+
+    /**
+     * @return the cart version after the change, or null if the user has no cart at {@code expectedVersion}
+     */
+    Long removeItem(String userId, String productId, Long expectedVersion);
+
+    /**
+     * @return the cart version after the change, or null if no cart at {@code expectedVersion} has the given id
+     */
+    Long clearItems(String cartId, Long expectedVersion);
+
+    /**
+     * @return every product id that is in at least one cart, read from the cartItems.productId index
+     */
+    List<String> findProductIdsInCarts();
+
+    /**
+     * Streams the carts holding any of the products; the caller must close the stream.
+     */
+    Stream<Cart> streamCartsHoldingAny(Collection<String> productIds);
+
+    /**
+     * Replaces the snapshots of the matching items and recomputes the totals.
+     *
+     * @return false if the cart no longer exists
+     */
+    boolean applySnapshots(String cartId, Map<String, CartItem> snapshotsByProductId);
+}
@@ -0,0 +1,286 @@
+package com.dharshi.cartservice.repositories;
+
+import com.dharshi.cartservice.exceptions.CartQuantityLimitException;
+import com.dharshi.cartservice.modals.Cart;
+import com.dharshi.cartservice.modals.CartItem;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Cart item mutations as single atomic updates on the carts document, so two concurrent requests for the
+ * same cart cannot overwrite each other's changes. Where the totals cannot be derived from the update alone,
+ * the cart is read first and written back conditionally on the version that was read.
+ */
+public class CartRepositoryCustomImpl implements CartRepositoryCustom {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Cart findOrCreateByUserId(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        // naming the version field keeps MongoTemplate from bumping it, reading a cart must not change its ETag
+        Update update = new Update()
+                .setOnInsert("cartItems", new ArrayList<>())
+                .setOnInsert("noOfCartItems", 0)
+                .setOnInsert("subtotal", 0.0)
+                .setOnInsert("version", 0L);
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        try {
+            return mongoTemplate.findAndModify(query, update, options, Cart.class);
+        } catch (DuplicateKeyException e) {
+            // a concurrent upsert for the same user won the unique userId index, so the cart exists now
+            return mongoTemplate.findOne(query, Cart.class);
+        }
+    }
+
+    @Override
+    public Long addItemQuantity(String userId, CartItem snapshot, int quantityDelta, Long expectedVersion)
+            throws CartQuantityLimitException {
+        String productId = snapshot.getProductId();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Long version = incrementExistingItem(userId, snapshot, quantityDelta, expectedVersion);
+            if (version != null) {
+                return version;
+            }
+
+            Criteria withoutItem = cartOfUser(userId, expectedVersion).and("cartItems.productId").ne(productId);
+            Update pushItem = new Update()
+                    .push("cartItems", withQuantity(snapshot, 1))
+                    .inc("noOfCartItems", 1)
+                    .inc("subtotal", snapshot.getPrice());
+            version = modify(Query.query(withoutItem), pushItem);
+            if (version != null) {
+                return version;
+            }
+
+            // the item is there after all: at an older price, at quantity 1 so it cannot be decremented,
+            // or pushed by a concurrent request between the two updates
+            Cart cart = mongoTemplate.findOne(Query.query(cartOfUser(userId, expectedVersion)), Cart.class);
+            if (cart == null) {
+                return null;
+            }
+            CartItem existingItem = findItem(cart, productId);
+            if (existingItem != null && (existingItem.getPrice() != snapshot.getPrice() || existingItem.isUnavailable())) {
+                // move the line to the current price first so that the increment matches on the next attempt
+                Long repricedVersion = replaceItems(cart, Map.of(productId, snapshot));
+                if (repricedVersion != null && expectedVersion != null) {
+                    expectedVersion = repricedVersion;
+                }
+                continue;
+            }
+            if (quantityDelta <= 0) {
+                return cart.getVersion();
+            }
+            if (existingItem != null && existingItem.getQuantity() + quantityDelta > CartItem.MAX_QUANTITY) {
+                throw new CartQuantityLimitException("At most " + CartItem.MAX_QUANTITY + " of product " + productId + " can be in a cart!");
+            }
+        }
+        throw new IllegalStateException("Unable to update cart of user " + userId);
+    }
+
+    @Override
+    public Long applyItemDeltas(String userId, Map<String, Integer> quantityDeltas, Map<String, CartItem> snapshots, Long expectedVersion)
+            throws CartQuantityLimitException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Cart cart = mongoTemplate.findOne(Query.query(cartOfUser(userId, expectedVersion)), Cart.class);
+            if (cart == null) {
+                return null;
+            }
+
+            Map<String, CartItem> lines = new LinkedHashMap<>();
+            for (CartItem cartItem : cart.getCartItems()) {
+                lines.put(cartItem.getProductId(), cartItem);
+            }
+            for (Map.Entry<String, Integer> quantityDelta : quantityDeltas.entrySet()) {
+                String productId = quantityDelta.getKey();
+                CartItem line = lines.get(productId);
+                int quantity = Math.addExact(line == null ? 0 : line.getQuantity(), quantityDelta.getValue());
+                // a line already above the cap, from before it existed, may still be reduced
+                if (quantityDelta.getValue() > 0 && quantity > CartItem.MAX_QUANTITY) {
+                    throw new CartQuantityLimitException("At most " + CartItem.MAX_QUANTITY + " of product " + productId + " can be in a cart!");
+                }
+                if (quantity <= 0) {
+                    lines.remove(productId);
+                } else {
+                    lines.put(productId, withQuantity(snapshots.get(productId), quantity));
+                }
+            }
+
+            Long version = writeItems(cart, lines.values());
+            if (version != null) {
+                return version;
+            }
+            if (expectedVersion != null) {
+                return null;
+            }
+        }
+        throw new IllegalStateException("Unable to update cart of user " + userId);
+    }
+
+    @Override
+    public Long removeItem(String userId, String productId, Long expectedVersion) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Cart cart = mongoTemplate.findOne(Query.query(cartOfUser(userId, expectedVersion)), Cart.class);
+            if (cart == null) {
+                return null;
+            }
+
+            Update update = new Update().pull("cartItems", new Document("productId", productId));
+            CartItem item = findItem(cart, productId);
+            if (item != null && !item.isUnavailable()) {
+                update.inc("noOfCartItems", -item.getQuantity())
+                        .inc("subtotal", -item.getQuantity() * item.getPrice());
+            }
+            Long version = modify(Query.query(sameVersion(cart)), update);
+            if (version != null) {
+                return version;
+            }
+            if (expectedVersion != null) {
+                return null;
+            }
+        }
+        throw new IllegalStateException("Unable to update cart of user " + userId);
+    }
+
+    @Override
+    public Long clearItems(String cartId, Long expectedVersion) {
+        Criteria cart = Criteria.where("_id").is(cartId);
+        if (expectedVersion != null) {
+            cart = cart.and("version").is(expectedVersion);
+        }
+        Update update = new Update()
+                .set("cartItems", new ArrayList<>())
+                .set("noOfCartItems", 0)
+                .set("subtotal", 0.0);
+        return modify(Query.query(cart), update);
+    }
+
+    @Override
+    public List<String> findProductIdsInCarts() {
+        return mongoTemplate.findDistinct(new Query(), "cartItems.productId", Cart.class, String.class);
+    }
+
+    @Override
+    public Stream<Cart> streamCartsHoldingAny(Collection<String> productIds) {
+        return mongoTemplate.stream(Query.query(Criteria.where("cartItems.productId").in(productIds)), Cart.class);
+    }
+
+    @Override
+    public boolean applySnapshots(String cartId, Map<String, CartItem> snapshotsByProductId) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Cart cart = mongoTemplate.findById(cartId, Cart.class);
+            if (cart == null) {
+                return false;
+            }
+            if (replaceItems(cart, snapshotsByProductId) != null) {
+                return true;
+            }
+        }
+        throw new IllegalStateException("Unable to update cart " + cartId);
+    }
+
+    private Long incrementExistingItem(String userId, CartItem snapshot, int quantityDelta, Long expectedVersion) {
+        // matching on the price keeps the subtotal increment exact, a line at an older price is repriced first
+        Criteria item = Criteria.where("productId").is(snapshot.getProductId())
+                .and("price").is(snapshot.getPrice())
+                .and("unavailable").ne(true);
+        if (quantityDelta < 0) {
+            item = item.and("quantity").gt(-quantityDelta);
+        } else {
+            item = item.and("quantity").lte(CartItem.MAX_QUANTITY - quantityDelta);
+        }
+        Query query = Query.query(cartOfUser(userId, expectedVersion).and("cartItems").elemMatch(item));
+        Update update = new Update()
+                .inc("cartItems.$.quantity", quantityDelta)
+                .inc("noOfCartItems", quantityDelta)
+                .inc("subtotal", quantityDelta * snapshot.getPrice());
+        return modify(query, update);
+    }
+
+    private Long replaceItems(Cart cart, Map<String, CartItem> snapshotsByProductId) {
+        List<CartItem> cartItems = new ArrayList<>();
+        for (CartItem cartItem : cart.getCartItems()) {
+            CartItem snapshot = snapshotsByProductId.get(cartItem.getProductId());
+            cartItems.add(snapshot == null ? cartItem : withQuantity(snapshot, cartItem.getQuantity()));
+        }
+        return writeItems(cart, cartItems);
+    }
+
+    /**
+     * Replaces all lines of the cart and recomputes the totals, provided the cart is still at the version read.
+     */
+    private Long writeItems(Cart cart, Collection<CartItem> items) {
+        int noOfCartItems = 0;
+        double subtotal = 0.0;
+        Set<CartItem> cartItems = new HashSet<>();
+        for (CartItem cartItem : items) {
+            if (!cartItem.isUnavailable()) {
+                noOfCartItems += cartItem.getQuantity();
+                subtotal += cartItem.getQuantity() * cartItem.getPrice();
+            }
+            cartItems.add(cartItem);
+        }
+
+        Update update = new Update()
+                .set("cartItems", cartItems)
+                .set("noOfCartItems", noOfCartItems)
+                .set("subtotal", subtotal);
+        return modify(Query.query(sameVersion(cart)), update);
+    }
+
+    private Long modify(Query query, Update update) {
+        query.fields().include("version");
+        Cart cart = mongoTemplate.findAndModify(query, update.inc("version", 1L),
+                FindAndModifyOptions.options().returnNew(true), Cart.class);
+        return cart == null ? null : cart.getVersion();
+    }
+
+    private CartItem findItem(Cart cart, String productId) {
+        return cart.getCartItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private CartItem withQuantity(CartItem snapshot, int quantity) {
+        return CartItem.builder()
+                .productId(snapshot.getProductId())
+                .quantity(quantity)
+                .productName(snapshot.getProductName())
+                .price(snapshot.getPrice())
+                .imageUrl(snapshot.getImageUrl())
+                .categoryName(snapshot.getCategoryName())
+                .unavailable(snapshot.isUnavailable())
+                .build();
+    }
+
+    private Criteria sameVersion(Cart cart) {
+        return Criteria.where("_id").is(cart.getId()).and("version").is(cart.getVersion());
+    }
+
+    private Criteria cartOfUser(String userId, Long expectedVersion) {
+        Criteria cart = Criteria.where("userId").is(userId);
+        if (expectedVersion != null) {
+            cart = cart.and("version").is(expectedVersion);
+        }
+        return cart;
+    }
+}
@@ -1,6 +1,7 @@
 package com.dharshi.cartservice.security;
 
 import com.dharshi.cartservice.feigns.AuthService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -27,6 +29,21 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Autowired
+    private AuthTokenCache authTokenCache;
+
+    @Autowired
+    private GatewayIdentityVerifier gatewayIdentityVerifier;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Value("${app.auth.trustGatewayHeaders}")
+    private boolean trustGatewayHeaders;
+
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -35,9 +52,21 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null) {
-                UserDetails userDetails = Objects.requireNonNull(authService.validateToken(jwt).getBody()).getResponse();
+            UserDetails userDetails = trustGatewayHeaders ? gatewayIdentityVerifier.verify(request) : null;
+            if (userDetails == null && jwt != null) {
+                userDetails = authTokenCache.get(jwt);
+                if (userDetails == null) {
+                    Claims claims = jwtVerifier.parseClaims(jwt);
+                    userDetails = jwtVerifier.userDetailsFromClaims(claims);
+                    if (userDetails == null) {
+                        // token predates identity claims, let auth-service resolve the user
+                        userDetails = Objects.requireNonNull(authService.validateToken(jwt).getBody()).getResponse();
+                    }
+                    authTokenCache.put(jwt, userDetails, claims.getExpiration());
+                }
+            }
 
+            if (userDetails != null && !tokenRevocationList.isRevoked(userDetails.getTokenId())) {
                 List<GrantedAuthority> authorities = userDetails.getAuthorities().stream()
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList());
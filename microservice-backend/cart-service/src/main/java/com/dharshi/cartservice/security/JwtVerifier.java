@@ -0,0 +1,58 @@
+package com.dharshi.cartservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Verifies access tokens in-process with the same key material as auth-service's JwtUtils,
+ * so a request can be authenticated without calling AUTH-SERVICE.
+ */
+@Component
+public class JwtVerifier {
+
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    @Value("${app.jwtSecret}")
+    private String jwtSecret;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+    }
+
+    /**
+     * Checks the signature and expiry of the token.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseClaims(String token) throws JwtException {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * @return the user, or null when the token was issued without identity claims
+     */
+    public UserDetails userDetailsFromClaims(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        if (userId == null || authorities == null) {
+            return null;
+        }
+
+        return new UserDetails(userId, authorities.stream().map(String::valueOf).toList(), claims.getId());
+    }
+}
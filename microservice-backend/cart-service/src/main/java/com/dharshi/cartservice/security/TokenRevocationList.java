@@ -0,0 +1,102 @@
+package com.dharshi.cartservice.security;
+
+import com.dharshi.cartservice.dtos.RevokedTokenDto;
+import com.dharshi.cartservice.dtos.RevokedTokensDto;
+import com.dharshi.cartservice.feigns.AuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Local copy of the access tokens revoked through auth-service's /auth/logout, refreshed incrementally
+ * from /auth/revocations. Lookups go through a Bloom filter first, so the common "not revoked" answer
+ * costs a few bit tests and no allocation; the exact set only confirms Bloom filter hits.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final int BLOOM_BITS = 1 << 20;
+    private static final int BLOOM_HASHES = 3;
+
+    @Autowired
+    private AuthService authService;
+
+    @Value("${app.tokenRevocation.overlapMs}")
+    private long overlapMs;
+
+    @Value("${app.internalServiceToken}")
+    private String internalServiceToken;
+
+    // token id -> token expiry in ms, entries are dropped once the token has expired anyway
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private volatile AtomicLongArray bloomFilter = new AtomicLongArray(BLOOM_BITS / Long.SIZE);
+
+    private long syncedUntil = 0;
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+
+        AtomicLongArray bits = bloomFilter;
+        int hash = tokenId.hashCode();
+        int step = Integer.rotateLeft(hash * 0x9E3779B9, 16) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (hash + i * step) & (BLOOM_BITS - 1);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return revokedTokens.containsKey(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tokenRevocation.refreshIntervalMs}")
+    public void refresh() {
+        try {
+            // polls overlap a little so a revocation committed just before the last snapshot is not missed
+            long since = Math.max(0, syncedUntil - overlapMs);
+            RevokedTokensDto revoked = Objects.requireNonNull(authService.getRevokedTokens(since, internalServiceToken).getBody()).getResponse();
+
+            for (RevokedTokenDto token : revoked.getTokens()) {
+                setBits(bloomFilter, token.getTokenId());
+                revokedTokens.put(token.getTokenId(), token.getExpiresAt());
+            }
+            syncedUntil = revoked.getAsOf();
+
+            removeExpired();
+        } catch (Exception e) {
+            logger.warn("Cannot refresh token revocation list: {}", e.getMessage());
+        }
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        if (revokedTokens.values().removeIf(expiresAt -> expiresAt < now)) {
+            // a Bloom filter cannot forget entries, so rebuild it from what is left
+            AtomicLongArray rebuilt = new AtomicLongArray(BLOOM_BITS / Long.SIZE);
+            revokedTokens.keySet().forEach(tokenId -> setBits(rebuilt, tokenId));
+            bloomFilter = rebuilt;
+        }
+    }
+
+    private void setBits(AtomicLongArray bits, String tokenId) {
+        int hash = tokenId.hashCode();
+        int step = Integer.rotateLeft(hash * 0x9E3779B9, 16) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (hash + i * step) & (BLOOM_BITS - 1);
+            long mask = 1L << bit;
+            bits.getAndAccumulate(bit >>> 6, mask, (current, update) -> current | update);
+        }
+    }
+}
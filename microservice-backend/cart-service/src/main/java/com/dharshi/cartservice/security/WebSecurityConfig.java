@@ -51,6 +51,8 @@ public class WebSecurityConfig {
         
         configuration.addAllowedMethod("*");
         configuration.addAllowedHeader("*");
+        // lets the frontend read the cart version for If-None-Match / If-Match
+        configuration.addExposedHeader("ETag");
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,96 @@
+package com.dharshi.cartservice.services;
+
+import com.dharshi.cartservice.dtos.CartItemResponseDto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+
+/**
+ * Maps cart versions to ETag values and back. Carts are per user, so the version identifies the stored state.
+ * A cart rendered from live product data also depends on that data, so its ETag carries a digest of it as well.
+ */
+final class CartETags {
+
+    private CartETags() {
+    }
+
+    static String toETag(Long version) {
+        return "\"" + (version == null ? 0L : version) + "\"";
+    }
+
+    /**
+     * @return an ETag covering the cart version and the product fields the lines were rendered with
+     */
+    static String toETag(Long version, Collection<CartItemResponseDto> cartItems) {
+        StringBuilder products = new StringBuilder();
+        cartItems.stream()
+                .sorted(Comparator.comparing(CartItemResponseDto::getProductId))
+                .forEach(cartItem -> products.append(cartItem.getProductId()).append('\n')
+                        .append(cartItem.getProductName()).append('\n')
+                        .append(cartItem.getPrice()).append('\n')
+                        .append(cartItem.getImageUrl()).append('\n')
+                        .append(cartItem.getCategoryName()).append('\n'));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(products.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + (version == null ? 0L : version) + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return true if any of the comma separated If-None-Match values names the given version
+     */
+    static boolean matches(String ifNoneMatch, Long version) {
+        return matches(ifNoneMatch, toETag(version));
+    }
+
+    /**
+     * @return true if any of the comma separated If-None-Match values equals the given ETag
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            // comparison is weak, a W/ prefix added by a proxy does not change the version
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the version named by an If-Match header, null if the header is absent
+     * and -1 if it is not a cart ETag, so the write is refused
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        // an ETag of a live rendered cart names the version before the product digest
+        int digestStart = value.indexOf('-');
+        if (digestStart > 0) {
+            value = value.substring(0, digestStart);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
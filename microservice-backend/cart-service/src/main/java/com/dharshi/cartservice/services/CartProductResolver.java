@@ -0,0 +1,136 @@
+package com.dharshi.cartservice.services;
+
+import com.dharshi.cartservice.dtos.ProductDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the products of a cart within a per-request deadline. In BATCH mode the misses are fetched with one
+ * /product/get/byIds call, in CONCURRENT mode with one /product/get/byId call per product running in parallel,
+ * so a cart costs about as much as its slowest product. Products that fail or miss the deadline are left out
+ * of the result instead of failing the whole cart.
+ */
+@Component
+@Slf4j
+public class CartProductResolver {
+
+    public enum Mode { BATCH, CONCURRENT }
+
+    private final ProductSnapshotCache productSnapshotCache;
+
+    private final Mode mode;
+
+    private final long deadlineMs;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter unresolvedCounter;
+
+    public CartProductResolver(ProductSnapshotCache productSnapshotCache,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.cartEnrichment.mode}") Mode mode,
+                               @Value("${app.cartEnrichment.deadlineMs}") long deadlineMs,
+                               @Value("${app.cartEnrichment.threads}") int threads,
+                               @Value("${app.cartEnrichment.queueCapacity}") int queueCapacity) {
+        this.productSnapshotCache = productSnapshotCache;
+        this.mode = mode;
+        this.deadlineMs = deadlineMs;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("cart-enrichment-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.unresolvedCounter = Counter.builder("cart.enrichment.unresolved")
+                .description("Cart products that could not be resolved before the enrichment deadline")
+                .register(meterRegistry);
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "cartEnrichment", Collections.emptyList());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return the resolved products by id, products that are unknown, failed or too slow are absent
+     */
+    public Map<String, ProductDto> resolve(Collection<String> productIds) {
+        Map<String, ProductDto> products = new HashMap<>(productSnapshotCache.getCachedProducts(productIds));
+        List<String> missingIds = productIds.stream().filter(id -> !products.containsKey(id)).distinct().toList();
+        if (missingIds.isEmpty()) {
+            return products;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        if (mode == Mode.BATCH) {
+            CompletableFuture<Map<String, ProductDto>> batch = submit(() -> productSnapshotCache.getProducts(missingIds));
+            Map<String, ProductDto> fetched = await(batch, deadline);
+            if (fetched != null) {
+                products.putAll(fetched);
+            }
+        } else {
+            Map<String, CompletableFuture<ProductDto>> lookups = new LinkedHashMap<>();
+            for (String productId : missingIds) {
+                lookups.put(productId, submit(() -> productSnapshotCache.getProduct(productId)));
+            }
+            lookups.forEach((productId, lookup) -> {
+                ProductDto product = await(lookup, deadline);
+                if (product != null) {
+                    products.put(productId, product);
+                }
+            });
+        }
+
+        long unresolved = missingIds.stream().filter(id -> !products.containsKey(id)).count();
+        if (unresolved > 0) {
+            unresolvedCounter.increment(unresolved);
+            log.warn("{} of {} cart products could not be resolved", unresolved, productIds.size());
+        }
+        return products;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> lookup) {
+        try {
+            return CompletableFuture.supplyAsync(lookup, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (TimeoutException e) {
+            // a late result still lands in the product cache for the next request
+            return null;
+        } catch (ExecutionException e) {
+            log.debug("Product lookup failed: {}", e.getCause().getMessage());
+            return null;
+        }
+    }
+}
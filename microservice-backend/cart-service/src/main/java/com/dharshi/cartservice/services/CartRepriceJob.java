@@ -0,0 +1,150 @@
+package com.dharshi.cartservice.services;
+
+import com.dharshi.cartservice.dtos.ProductDto;
+import com.dharshi.cartservice.feigns.ProductService;
+import com.dharshi.cartservice.modals.Cart;
+import com.dharshi.cartservice.modals.CartItem;
+import com.dharshi.cartservice.repositories.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the product snapshots stored on cart lines, and with them the cart totals, in step with PRODUCT-SERVICE.
+ * Product-service publishes no change events, so the products held in carts are compared against their current
+ * state in batches: one product call and one indexed $in query per batch, with the comparison done in memory.
+ * Only carts with a stale line are rewritten, which bumps their version so clients polling with If-None-Match
+ * pick up the change. Lines of products that no longer exist are marked unavailable. A lease in jobLocks keeps
+ * the run on a single instance.
+ */
+@Component
+@Slf4j
+public class CartRepriceJob {
+
+    private static final String LOCK_NAME = "cartReprice";
+
+    private final CartRepository cartRepository;
+
+    private final ProductService productService;
+
+    private final JobLockService jobLockService;
+
+    private final int batchSize;
+
+    private final long lockLeaseMs;
+
+    private final Counter repricedCarts;
+
+    public CartRepriceJob(CartRepository cartRepository,
+                          ProductService productService,
+                          JobLockService jobLockService,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.cartReprice.batchSize}") int batchSize,
+                          @Value("${app.cartReprice.lockLeaseMs}") long lockLeaseMs) {
+        this.cartRepository = cartRepository;
+        this.productService = productService;
+        this.jobLockService = jobLockService;
+        this.batchSize = batchSize;
+        this.lockLeaseMs = lockLeaseMs;
+        this.repricedCarts = Counter.builder("cart.repriced")
+                .description("Carts rewritten because a product in them changed")
+                .register(meterRegistry);
+    }
+
+    static CartItem toSnapshot(ProductDto product) {
+        return CartItem.builder()
+                .productId(product.getId())
+                .productName(product.getProductName())
+                .price(product.getPrice())
+                .imageUrl(product.getImageUrl())
+                .categoryName(product.getCategoryName())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cartReprice.intervalMs}", initialDelayString = "${app.cartReprice.intervalMs}")
+    public void repriceCarts() {
+        if (!jobLockService.tryAcquire(LOCK_NAME, lockLeaseMs)) {
+            return;
+        }
+        try {
+            List<String> productIds = cartRepository.findProductIdsInCarts();
+            for (int from = 0; from < productIds.size(); from += batchSize) {
+                repriceBatch(productIds.subList(from, Math.min(from + batchSize, productIds.size())));
+            }
+        } catch (Exception e) {
+            // the next run starts over, carts keep their last known prices in the meantime
+            log.warn("Cart reprice run failed: {}", e.getMessage());
+        } finally {
+            jobLockService.release(LOCK_NAME);
+        }
+    }
+
+    private void repriceBatch(List<String> productIds) {
+        // fresh from PRODUCT-SERVICE, the snapshot cache may still hold the old state
+        List<ProductDto> products = productService.getProductsByIds(productIds).getBody().getResponse();
+        Map<String, CartItem> snapshots = new HashMap<>();
+        for (ProductDto product : products) {
+            snapshots.put(product.getId(), toSnapshot(product));
+        }
+        Set<String> batch = new HashSet<>(productIds);
+
+        Map<String, Map<String, CartItem>> staleSnapshotsByCart = new HashMap<>();
+        try (Stream<Cart> carts = cartRepository.streamCartsHoldingAny(productIds)) {
+            carts.forEach(cart -> {
+                Map<String, CartItem> staleSnapshots = new HashMap<>();
+                for (CartItem line : cart.getCartItems()) {
+                    if (!batch.contains(line.getProductId())) {
+                        continue;
+                    }
+                    CartItem snapshot = snapshots.get(line.getProductId());
+                    if (snapshot == null) {
+                        // the product was deleted, the line keeps its last snapshot but no longer counts
+                        snapshot = unavailable(line);
+                    }
+                    if (isStale(line, snapshot)) {
+                        staleSnapshots.put(line.getProductId(), snapshot);
+                    }
+                }
+                if (!staleSnapshots.isEmpty()) {
+                    staleSnapshotsByCart.put(cart.getId(), staleSnapshots);
+                }
+            });
+        }
+
+        staleSnapshotsByCart.forEach((cartId, staleSnapshots) -> {
+            if (cartRepository.applySnapshots(cartId, staleSnapshots)) {
+                repricedCarts.increment();
+            }
+        });
+    }
+
+    private CartItem unavailable(CartItem line) {
+        return CartItem.builder()
+                .productId(line.getProductId())
+                .productName(line.getProductName())
+                .price(line.getPrice())
+                .imageUrl(line.getImageUrl())
+                .categoryName(line.getCategoryName())
+                .unavailable(true)
+                .build();
+    }
+
+    private boolean isStale(CartItem line, CartItem snapshot) {
+        return line.getPrice() != snapshot.getPrice()
+                || line.isUnavailable() != snapshot.isUnavailable()
+                || !Objects.equals(line.getProductName(), snapshot.getProductName())
+                || !Objects.equals(line.getImageUrl(), snapshot.getImageUrl())
+                || !Objects.equals(line.getCategoryName(), snapshot.getCategoryName());
+    }
+}
@@ -1,17 +1,26 @@
 package com.dharshi.cartservice.services;
 
 import com.dharshi.cartservice.dtos.ApiResponseDto;
+import com.dharshi.cartservice.dtos.CartItemDeltaDto;
 import com.dharshi.cartservice.dtos.CartItemRequestDto;
+import com.dharshi.cartservice.exceptions.CartQuantityLimitException;
+import com.dharshi.cartservice.exceptions.CartVersionConflictException;
 import com.dharshi.cartservice.exceptions.ResourceNotFoundException;
 import com.dharshi.cartservice.exceptions.ServiceLogicException;
 import org.springframework.http.ResponseEntity;
 
+import java.util.List;
+
 public interface CartService {
-    ResponseEntity<ApiResponseDto<?>> addItemToCart(String userId, CartItemRequestDto requestDto) throws ResourceNotFoundException, ServiceLogicException;
+    ResponseEntity<ApiResponseDto<?>> addItemToCart(String userId, CartItemRequestDto requestDto, String ifMatch) throws ResourceNotFoundException, CartVersionConflictException, CartQuantityLimitException, ServiceLogicException;
+
+    ResponseEntity<ApiResponseDto<?>> addItemsToCart(String userId, List<CartItemDeltaDto> itemDeltas, String ifMatch) throws ResourceNotFoundException, CartVersionConflictException, CartQuantityLimitException, ServiceLogicException;
+
+    ResponseEntity<ApiResponseDto<?>> getCartItemsByUser(String userId, String ifNoneMatch) throws ResourceNotFoundException, ServiceLogicException;
 
-    ResponseEntity<ApiResponseDto<?>> getCartItemsByUser(String userId) throws ResourceNotFoundException, ServiceLogicException;
+    ResponseEntity<ApiResponseDto<?>> getCartItemsByUserId(String userId) throws ResourceNotFoundException, ServiceLogicException;
 
-    ResponseEntity<ApiResponseDto<?>> removeCartItemFromCart(String userId, String productId) throws ServiceLogicException, ResourceNotFoundException;
-    ResponseEntity<ApiResponseDto<?>> clearCartById(String id) throws ServiceLogicException, ResourceNotFoundException;
+    ResponseEntity<ApiResponseDto<?>> removeCartItemFromCart(String userId, String productId, String ifMatch) throws ServiceLogicException, ResourceNotFoundException, CartVersionConflictException;
+    ResponseEntity<ApiResponseDto<?>> clearCartById(String id, String ifMatch) throws ServiceLogicException, ResourceNotFoundException, CartVersionConflictException;
     ResponseEntity<ApiResponseDto<?>> getCartById(String id) throws ServiceLogicException;
 }
@@ -1,15 +1,18 @@
 package com.dharshi.cartservice.services;
 
 import com.dharshi.cartservice.dtos.*;
+import com.dharshi.cartservice.exceptions.CartQuantityLimitException;
+import com.dharshi.cartservice.exceptions.CartVersionConflictException;
 import com.dharshi.cartservice.exceptions.ResourceNotFoundException;
 import com.dharshi.cartservice.exceptions.ServiceLogicException;
-import com.dharshi.cartservice.feigns.ProductService;
-import com.dharshi.cartservice.feigns.UserService;
 import com.dharshi.cartservice.modals.Cart;
 import com.dharshi.cartservice.modals.CartItem;
 import com.dharshi.cartservice.repositories.CartRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
@@ -22,119 +25,208 @@ public class CartServiceImpl implements CartService {
     @Autowired
     private CartRepository cartRepository;
 
+    @Value("${app.cartBulk.maxItems}")
+    private int MAX_BULK_ITEMS;
+
+    @Autowired
+    private ProductSnapshotCache productSnapshotCache;
+
     @Autowired
-    private ProductService productService;
+    private CartProductResolver cartProductResolver;
 
     @Autowired
-    private UserService userService;
+    private UserExistenceCache userExistenceCache;
 
     @Override
-    public ResponseEntity<ApiResponseDto<?>> addItemToCart(String userId, CartItemRequestDto requestDto) throws ResourceNotFoundException, ServiceLogicException {
+    public ResponseEntity<ApiResponseDto<?>> addItemToCart(String userId, CartItemRequestDto requestDto, String ifMatch)
+            throws ResourceNotFoundException, CartVersionConflictException, CartQuantityLimitException, ServiceLogicException {
+        Long version;
         try {
-            if (!Objects.requireNonNull(userService.existsUserById(userId).getBody()).getResponse()) {
-                throw new ResourceNotFoundException("User not found with id " + userId);
-            }
-            if (Objects.requireNonNull(productService.getProductById(requestDto.getProductId()).getBody()).getResponse()==null) {
+            // userId is the authenticated principal, so the user is known to exist
+            userExistenceCache.recordTrustedPrincipal();
+            ProductDto product = productSnapshotCache.getProduct(requestDto.getProductId());
+            if (product == null) {
                 throw new ResourceNotFoundException("Product not found with id " + requestDto.getProductId());
             }
 
-            Cart userCart = getCart(userId);
-            Set<CartItem> userCartItems = userCart.getCartItems();
-            CartItem cartItem = createCartItem(userCartItems, requestDto);
-
-            userCartItems.add(cartItem);
-            userCart.setCartItems(userCartItems);
-
-            cartRepository.save(userCart);
-
-            return ResponseEntity.ok(
-                    ApiResponseDto.builder()
-                            .isSuccess(true)
-                            .message("Item successfully added to cart!")
-                            .build()
-            );
+            cartRepository.findOrCreateByUserId(userId);
+            // a single call changes the quantity by at most one
+            int quantityDelta = requestDto.getQuantity() > 0 ? 1 : -1;
+            version = cartRepository.addItemQuantity(userId, CartRepriceJob.toSnapshot(product), quantityDelta, CartETags.parseIfMatch(ifMatch));
         }catch (ResourceNotFoundException e) {
             throw new ResourceNotFoundException(e.getMessage());
+        }catch (CartQuantityLimitException e) {
+            throw new CartQuantityLimitException(e.getMessage());
         }catch (Exception e) {
             log.error("Failed to add item to cart: " + e.getMessage());
             throw new ServiceLogicException("Unable to add item to cart!");
         }
+
+        if (version == null) {
+            throw new CartVersionConflictException("Cart has been changed by another request!");
+        }
+        return ResponseEntity.ok()
+                .eTag(CartETags.toETag(version))
+                .body(ApiResponseDto.builder()
+                        .isSuccess(true)
+                        .message("Item successfully added to cart!")
+                        .build()
+                );
     }
 
     @Override
-    public ResponseEntity<ApiResponseDto<?>> getCartItemsByUser(String userId) throws ResourceNotFoundException, ServiceLogicException {
-        try {
+    public ResponseEntity<ApiResponseDto<?>> addItemsToCart(String userId, List<CartItemDeltaDto> itemDeltas, String ifMatch)
+            throws ResourceNotFoundException, CartVersionConflictException, CartQuantityLimitException, ServiceLogicException {
+        if (itemDeltas == null || itemDeltas.isEmpty() || itemDeltas.size() > MAX_BULK_ITEMS) {
+            return ResponseEntity.badRequest().body(
+                    ApiResponseDto.builder()
+                            .isSuccess(false)
+                            .message("Between 1 and " + MAX_BULK_ITEMS + " items can be changed at once!")
+                            .build()
+            );
+        }
+        if (itemDeltas.stream().anyMatch(itemDelta -> itemDelta.getProductId() == null)) {
+            return ResponseEntity.badRequest().body(
+                    ApiResponseDto.builder()
+                            .isSuccess(false)
+                            .message("Every item needs a productId!")
+                            .build()
+            );
+        }
 
-            if (Objects.requireNonNull(userService.existsUserById(userId).getBody()).getResponse()) {
-                if(!cartRepository.existsByUserId(userId)) {
-                    createAndSaveNewCart(userId);
-                }
+        // repeated products are folded into one change each, CartItemDeltaDto bounds every delta so the sums cannot overflow
+        Map<String, Integer> quantityDeltas = new LinkedHashMap<>();
+        for (CartItemDeltaDto itemDelta : itemDeltas) {
+            quantityDeltas.merge(itemDelta.getProductId(), itemDelta.getQuantityDelta(), Math::addExact);
+        }
 
-                Cart userCart = getCart(userId);
+        Long version;
+        try {
+            // userId is the authenticated principal, so the user is known to exist
+            userExistenceCache.recordTrustedPrincipal();
+
+            // all products are validated with one batch lookup, misses included
+            Map<String, ProductDto> products = productSnapshotCache.getProducts(quantityDeltas.keySet());
+            List<String> unknownProductIds = quantityDeltas.keySet().stream()
+                    .filter(productId -> !products.containsKey(productId))
+                    .toList();
+            if (!unknownProductIds.isEmpty()) {
+                throw new ResourceNotFoundException("Products not found with ids " + String.join(", ", unknownProductIds));
+            }
 
-                CartResponseDto cartResponse = cartToCartResponseDto(userCart);
+            Map<String, CartItem> snapshots = new HashMap<>();
+            products.forEach((productId, product) -> snapshots.put(productId, CartRepriceJob.toSnapshot(product)));
 
-                return ResponseEntity.ok(
-                        ApiResponseDto.builder()
-                                .isSuccess(true)
-                                .response(cartResponse)
-                                .build()
+            cartRepository.findOrCreateByUserId(userId);
+            version = cartRepository.applyItemDeltas(userId, quantityDeltas, snapshots, CartETags.parseIfMatch(ifMatch));
+        }catch (ResourceNotFoundException e) {
+            throw new ResourceNotFoundException(e.getMessage());
+        }catch (CartQuantityLimitException e) {
+            throw new CartQuantityLimitException(e.getMessage());
+        }catch (Exception e) {
+            log.error("Failed to add items to cart: " + e.getMessage());
+            throw new ServiceLogicException("Unable to add items to cart!");
+        }
+
+        if (version == null) {
+            throw new CartVersionConflictException("Cart has been changed by another request!");
+        }
+        return ResponseEntity.ok()
+                .eTag(CartETags.toETag(version))
+                .body(ApiResponseDto.builder()
+                        .isSuccess(true)
+                        .message("Items successfully added to cart!")
+                        .build()
                 );
-            }
+    }
+
+    @Override
+    public ResponseEntity<ApiResponseDto<?>> getCartItemsByUser(String userId, String ifNoneMatch) throws ServiceLogicException {
+        // userId is the authenticated principal, so the user is known to exist
+        userExistenceCache.recordTrustedPrincipal();
+        return getCart(userId, ifNoneMatch);
+    }
+
+    @Override
+    public ResponseEntity<ApiResponseDto<?>> getCartItemsByUserId(String userId) throws ResourceNotFoundException, ServiceLogicException {
+        boolean userExists;
+        try {
+            userExists = userExistenceCache.exists(userId);
         }catch (Exception e) {
-            log.error("Failed to find cart: " + e.getMessage());
+            log.error("Failed to find user: " + e.getMessage());
             throw new ServiceLogicException("Unable to find cart!");
         }
+        if (userExists) {
+            return getCart(userId, null);
+        }
         throw new ResourceNotFoundException("User not found with id " + userId);
+    }
 
+    private ResponseEntity<ApiResponseDto<?>> getCart(String userId, String ifNoneMatch) throws ServiceLogicException {
+        try {
+            Cart userCart = cartRepository.findOrCreateByUserId(userId);
+            return cartToResponse(userCart, ifNoneMatch, null);
+        }catch (Exception e) {
+            log.error("Failed to find cart: " + e.getMessage());
+            throw new ServiceLogicException("Unable to find cart!");
+        }
     }
 
     @Override
-    public ResponseEntity<ApiResponseDto<?>> removeCartItemFromCart(String userId, String productId) throws ServiceLogicException, ResourceNotFoundException {
+    public ResponseEntity<ApiResponseDto<?>> removeCartItemFromCart(String userId, String productId, String ifMatch)
+            throws ServiceLogicException, ResourceNotFoundException, CartVersionConflictException {
+        Long expectedVersion = CartETags.parseIfMatch(ifMatch);
+        Long version;
+        boolean cartExists;
         try {
-            if(cartRepository.existsByUserId(userId)) {
-                Cart userCart = cartRepository.findByUserId(userId);
-                Set<CartItem> removedItemsSet = removeCartItem(userCart.getCartItems(), productId);
-                userCart.setCartItems(removedItemsSet);
-                cartRepository.save(userCart);
-
-                return ResponseEntity.ok(
-                        ApiResponseDto.builder()
-                                .isSuccess(true)
-                                .message("Item successfully removed to cart!")
-                                .build()
-                );
-
-            }
-
+            version = cartRepository.removeItem(userId, productId, expectedVersion);
+            cartExists = version != null || (expectedVersion != null && cartRepository.existsByUserId(userId));
         }catch (Exception e) {
             log.error("Failed to add item to cart: " + e.getMessage());
             throw new ServiceLogicException("Unable to add item to cart!");
         }
+
+        if (version != null) {
+            return ResponseEntity.ok()
+                    .eTag(CartETags.toETag(version))
+                    .body(ApiResponseDto.builder()
+                            .isSuccess(true)
+                            .message("Item successfully removed to cart!")
+                            .build()
+                    );
+        }
+        if (cartExists) {
+            throw new CartVersionConflictException("Cart has been changed by another request!");
+        }
         throw new ResourceNotFoundException("No cart found for user " + userId);
     }
 
     @Override
-    public ResponseEntity<ApiResponseDto<?>> clearCartById(String id) throws ServiceLogicException, ResourceNotFoundException {
+    public ResponseEntity<ApiResponseDto<?>> clearCartById(String id, String ifMatch)
+            throws ServiceLogicException, ResourceNotFoundException, CartVersionConflictException {
+        Long expectedVersion = CartETags.parseIfMatch(ifMatch);
+        Long version;
+        boolean cartExists;
         try {
-            if(cartRepository.existsById(id)) {
-                Cart userCart = cartRepository.findById(id).orElse(null);
-                userCart.setCartItems(new HashSet<>());
-                cartRepository.save(userCart);
-
-                return ResponseEntity.ok(
-                        ApiResponseDto.builder()
-                                .isSuccess(true)
-                                .message("Cart has been successfully cleared!")
-                                .build()
-                );
-
-            }
-
+            version = cartRepository.clearItems(id, expectedVersion);
+            cartExists = version != null || (expectedVersion != null && cartRepository.existsById(id));
         }catch (Exception e) {
             log.error("Failed to add item to cart: " + e.getMessage());
             throw new ServiceLogicException("Unable to add item to cart!");
         }
+
+        if (version != null) {
+            return ResponseEntity.ok()
+                    .eTag(CartETags.toETag(version))
+                    .body(ApiResponseDto.builder()
+                            .isSuccess(true)
+                            .message("Cart has been successfully cleared!")
+                            .build()
+                    );
+        }
+        if (cartExists) {
+            throw new CartVersionConflictException("Cart has been changed by another request!");
+        }
         throw new ResourceNotFoundException("No cart found for id " + id);
     }
 
@@ -143,15 +235,7 @@ public class CartServiceImpl implements CartService {
         try {
 
             Cart cart = cartRepository.findById(id).orElse(null);
-            CartResponseDto cartResponse = cartToCartResponseDto(cart);
-
-            return ResponseEntity.ok(
-                    ApiResponseDto.builder()
-                            .isSuccess(true)
-                            .message("Cart received successfully!")
-                            .response(cartResponse)
-                            .build()
-            );
+            return cartToResponse(cart, null, "Cart received successfully!");
 
         }catch (Exception e) {
             log.error("Failed to find cart: " + e.getMessage());
@@ -159,61 +243,83 @@ public class CartServiceImpl implements CartService {
         }
     }
 
-    private void createAndSaveNewCart(String userId) {
-        if(!cartRepository.existsByUserId(userId)) {
-            Cart cart = Cart.builder()
-                    .userId(userId)
-                    .cartItems(new HashSet<>())
-                    .build();
-            cartRepository.insert(cart);
-        }
-    }
+    private ResponseEntity<ApiResponseDto<?>> cartToResponse(Cart userCart, String ifNoneMatch, String message) {
+        boolean hasSnapshots = userCart.getCartItems().stream().allMatch(cartItem -> cartItem.getProductName() != null);
 
-    private CartItem getNewCartItem(CartItemRequestDto requestDto) {
-        return CartItem.builder()
-                .productId(requestDto.getProductId())
-                .quantity(1)
-                .build();
-    }
-
-    private CartItem getExistingCartItem(Set<CartItem> userCartItems, String productId) {
-        List<CartItem> existingCartItems = userCartItems.stream().filter(item -> item.getProductId().equals(productId)).toList();
-        if (existingCartItems.isEmpty()){
-            return null;
+        CartResponseDto cartResponse;
+        String eTag;
+        if (hasSnapshots) {
+            // a cart rendered from its line snapshots is answered from the version alone, without any product lookups
+            eTag = CartETags.toETag(userCart.getVersion());
+            if (CartETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            cartResponse = snapshotCartToCartResponseDto(userCart);
+        } else {
+            // carts written before line snapshots existed are enriched live until CartRepriceJob fills them in,
+            // the body then depends on the product data as well, so the ETag covers both
+            cartResponse = enrichedCartToCartResponseDto(userCart);
+            boolean degraded = cartResponse.getCartItems().stream().anyMatch(cartItem -> cartItem.getProductName() == null);
+            if (degraded) {
+                // some products were not resolved in time, this partial body must not be cached or revalidated
+                return ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .body(ApiResponseDto.builder()
+                                .isSuccess(true)
+                                .message(message)
+                                .response(cartResponse)
+                                .build()
+                        );
+            }
+            eTag = CartETags.toETag(userCart.getVersion(), cartResponse.getCartItems());
+            if (CartETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
         }
-        return existingCartItems.get(0);
-    }
 
-    private Cart getCart(String userId) {
-        //  if cart is not already present create new cart
-        createAndSaveNewCart(userId);
-        return cartRepository.findByUserId(userId);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(ApiResponseDto.builder()
+                        .isSuccess(true)
+                        .message(message)
+                        .response(cartResponse)
+                        .build()
+                );
     }
 
-    private CartItem createCartItem(Set<CartItem> userCartItems, CartItemRequestDto requestDto) {
-
-        CartItem cartItem = getExistingCartItem(userCartItems, requestDto.getProductId());
-
-        if (cartItem == null) {
-            cartItem = getNewCartItem(requestDto);
-        }else {
-            if (requestDto.getQuantity() <= 0) requestDto.setQuantity(-1);
-            if (requestDto.getQuantity() > 0) requestDto.setQuantity(1);
-            if (cartItem.getQuantity() + requestDto.getQuantity() <= 0) requestDto.setQuantity(0);
-            userCartItems.remove(cartItem);
-            cartItem.setQuantity(cartItem.getQuantity() + requestDto.getQuantity());
+    private CartResponseDto snapshotCartToCartResponseDto(Cart userCart) {
+        Set<CartItemResponseDto> cartItems = new HashSet<>();
+        for (CartItem cartItem: userCart.getCartItems()) {
+            cartItems.add(CartItemResponseDto.builder()
+                    .productId(cartItem.getProductId())
+                    .productName(cartItem.getProductName())
+                    .price(cartItem.getPrice())
+                    .quantity(cartItem.getQuantity())
+                    .categoryName(cartItem.getCategoryName())
+                    .imageUrl(cartItem.getImageUrl())
+                    .unavailable(cartItem.isUnavailable())
+                    .amount(cartItem.isUnavailable() ? 0.0 : cartItem.getPrice() * cartItem.getQuantity())
+                    .build());
         }
 
-        return cartItem;
+        return CartResponseDto.builder()
+                .cartId(userCart.getId())
+                .userId(userCart.getUserId())
+                .cartItems(cartItems)
+                .noOfCartItems(userCart.getNoOfCartItems())
+                .subtotal(userCart.getSubtotal())
+                .build();
     }
 
-    private CartResponseDto cartToCartResponseDto(Cart userCart) {
+    private CartResponseDto enrichedCartToCartResponseDto(Cart userCart) {
         int noOfCartItems = 0;
         double subtotal = 0.0;
 
+        Map<String, ProductDto> products = getProductsById(userCart.getCartItems());
+
         Set<CartItemResponseDto> cartItems = new HashSet<>();
         for (CartItem cartItem: userCart.getCartItems()) {
-            CartItemResponseDto cartItemResponse = cartItemToCartItemResponseDto(cartItem);
+            CartItemResponseDto cartItemResponse = cartItemToCartItemResponseDto(cartItem, products.get(cartItem.getProductId()));
             noOfCartItems += cartItemResponse.getQuantity();
             subtotal += cartItemResponse.getAmount();
             cartItems.add(cartItemResponse);
@@ -228,8 +334,22 @@ public class CartServiceImpl implements CartService {
                 .build();
     }
 
-    private CartItemResponseDto cartItemToCartItemResponseDto(CartItem cartItem) {
-        ProductDto product = productService.getProductById(cartItem.getProductId()).getBody().getResponse();
+    private Map<String, ProductDto> getProductsById(Set<CartItem> cartItems) {
+        if (cartItems.isEmpty()) {
+            return Map.of();
+        }
+
+        return cartProductResolver.resolve(cartItems.stream().map(CartItem::getProductId).toList());
+    }
+
+    private CartItemResponseDto cartItemToCartItemResponseDto(CartItem cartItem, ProductDto product) {
+        if (product == null) {
+            // the product could not be resolved in time, the line is still shown but adds nothing to the subtotal
+            return CartItemResponseDto.builder()
+                    .productId(cartItem.getProductId())
+                    .quantity(cartItem.getQuantity())
+                    .build();
+        }
 
         return CartItemResponseDto.builder()
                 .productId(product.getId())
@@ -241,14 +361,4 @@ public class CartServiceImpl implements CartService {
                 .amount(product.getPrice() * cartItem.getQuantity())
                 .build();
     }
-
-    private Set<CartItem> removeCartItem(Set<CartItem> userCartItems, String productId) {
-        CartItem existingCartItem = getExistingCartItem(userCartItems, productId);
-
-        if (existingCartItem != null) {
-            userCartItems.remove(existingCartItem);
-        }
-
-        return userCartItems;
-    }
 }
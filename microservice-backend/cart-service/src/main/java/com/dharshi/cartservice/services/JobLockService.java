@@ -0,0 +1,47 @@
+package com.dharshi.cartservice.services;
+
+import com.dharshi.cartservice.modals.JobLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Lease-based lock in the jobLocks collection, so a scheduled job runs on one cart-service instance at a time.
+ * A lease that is not released, for example because the instance died, simply runs out.
+ */
+@Component
+public class JobLockService {
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public boolean tryAcquire(String name, long leaseMs) {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("_id").is(name).orOperator(
+                Criteria.where("lockedUntil").lt(now),
+                Criteria.where("owner").is(owner)));
+        Update update = new Update().set("owner", owner).set("lockedUntil", new Date(now.getTime() + leaseMs));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobLock.class) != null;
+        } catch (DuplicateKeyException e) {
+            // the lock document exists and another instance holds an unexpired lease
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        Query query = Query.query(Criteria.where("_id").is(name).and("owner").is(owner));
+        mongoTemplate.updateFirst(query, new Update().set("lockedUntil", new Date(0)), JobLock.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.dharshi.cartservice.services;
+
+import com.dharshi.cartservice.dtos.ProductDto;
+import com.dharshi.cartservice.feigns.ProductService;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Near-cache of product snapshots in front of PRODUCT-SERVICE. Entries older than the refresh interval
+ * are still served while a background reload runs; only entries past the TTL block the caller.
+ * Misses for a whole cart are loaded with a single /product/get/byIds call.
+ */
+@Component
+public class ProductSnapshotCache {
+
+    private final LoadingCache<String, ProductDto> cache;
+
+    public ProductSnapshotCache(ProductService productService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.productCache.maxSize}") long maxSize,
+                                @Value("${app.productCache.ttlMs}") long ttlMs,
+                                @Value("${app.productCache.refreshAfterMs}") long refreshAfterMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .refreshAfterWrite(Duration.ofMillis(refreshAfterMs))
+                .recordStats()
+                .build(new ProductLoader(productService));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productSnapshotCache");
+    }
+
+    /**
+     * @return the product, or null if PRODUCT-SERVICE does not know it
+     */
+    public ProductDto getProduct(String productId) {
+        return cache.get(productId);
+    }
+
+    /**
+     * @return the products already cached, without any call to PRODUCT-SERVICE
+     */
+    public Map<String, ProductDto> getCachedProducts(Collection<String> productIds) {
+        return cache.getAllPresent(productIds);
+    }
+
+    /**
+     * @return the known products by id, unknown ids are absent
+     */
+    public Map<String, ProductDto> getProducts(Collection<String> productIds) {
+        return cache.getAll(productIds);
+    }
+
+    private record ProductLoader(ProductService productService) implements CacheLoader<String, ProductDto> {
+
+        @Override
+        public ProductDto load(String productId) {
+            return productService.getProductById(productId).getBody().getResponse();
+        }
+
+        @Override
+        public Map<String, ProductDto> loadAll(Set<? extends String> productIds) {
+            List<ProductDto> products = productService.getProductsByIds(List.copyOf(productIds)).getBody().getResponse();
+
+            Map<String, ProductDto> productsById = new HashMap<>();
+            for (ProductDto product : products) {
+                productsById.put(product.getId(), product);
+            }
+            return productsById;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.dharshi.cartservice.services;
+
+import com.dharshi.cartservice.feigns.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User existence for the few cart paths that act on a user other than the caller. Requests made by the user
+ * themselves are already authenticated by AuthTokenFilter and skip USER-SERVICE entirely; those skipped
+ * calls are counted in cart.user.lookups.eliminated.
+ */
+@Component
+public class UserExistenceCache {
+
+    private final UserService userService;
+
+    private final Cache<String, Boolean> cache;
+
+    private final Counter eliminatedLookups;
+
+    public UserExistenceCache(UserService userService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.userExistenceCache.maxSize}") long maxSize,
+                              @Value("${app.userExistenceCache.positiveTtlMs}") long positiveTtlMs,
+                              @Value("${app.userExistenceCache.negativeTtlMs}") long negativeTtlMs) {
+        this.userService = userService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExistenceExpiry(positiveTtlMs, negativeTtlMs))
+                .recordStats()
+                .build();
+        this.eliminatedLookups = Counter.builder("cart.user.lookups.eliminated")
+                .description("USER-SERVICE existence checks skipped because the caller is the authenticated user")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userExistenceCache");
+    }
+
+    public boolean exists(String userId) {
+        return cache.get(userId, id -> Objects.requireNonNull(userService.existsUserById(id).getBody()).getResponse());
+    }
+
+    public void recordTrustedPrincipal() {
+        eliminatedLookups.increment();
+    }
+
+    // users are rarely deleted, but a user that does not exist yet may sign up at any moment
+    private record ExistenceExpiry(long positiveTtlMs, long negativeTtlMs) implements Expiry<String, Boolean> {
+
+        @Override
+        public long expireAfterCreate(String key, Boolean exists, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(exists ? positiveTtlMs : negativeTtlMs);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Boolean exists, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, exists, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Boolean exists, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
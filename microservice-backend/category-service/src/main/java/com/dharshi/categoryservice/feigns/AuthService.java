@@ -1,10 +1,12 @@
 package com.dharshi.categoryservice.feigns;
 
 import com.dharshi.categoryservice.dtos.ApiResponseDto;
+import com.dharshi.categoryservice.dtos.RevokedTokensDto;
 import com.dharshi.categoryservice.security.UserDetails;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 @FeignClient("AUTH-SERVICE")
@@ -13,4 +15,8 @@ public interface AuthService {
     @GetMapping("/auth/isValidToken")
     ResponseEntity<ApiResponseDto<UserDetails>> validateToken(@RequestParam String token);
 
+    @GetMapping("/auth/revocations")
+    ResponseEntity<ApiResponseDto<RevokedTokensDto>> getRevokedTokens(@RequestParam long since,
+                                                                       @RequestHeader("X-Service-Token") String serviceToken);
+
 }
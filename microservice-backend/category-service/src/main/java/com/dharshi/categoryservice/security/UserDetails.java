@@ -15,4 +15,7 @@ public class UserDetails {
 
     private List<String> authorities;
 
+    // jti of the access token the user was authenticated with, used for revocation checks
+    private String tokenId;
+
 }
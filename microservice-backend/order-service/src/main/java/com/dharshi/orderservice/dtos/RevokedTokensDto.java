@@ -0,0 +1,15 @@
+package com.dharshi.orderservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedTokensDto {
+    private long asOf;
+    private List<RevokedTokenDto> tokens;
+}
@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 
 @RestController
 @RequestMapping("/product")
@@ -26,6 +28,11 @@ public class CommonProductController {
         return productService.getProductById(id);
     }
 
+    @GetMapping("/get/byIds")
+    public ResponseEntity<ApiResponseDto<?>> getProductsByIds(@RequestParam List<String> ids) throws ServiceLogicException{
+        return productService.getProductsByIds(ids);
+    }
+
     @GetMapping("/get/byCategory")
     public ResponseEntity<ApiResponseDto<?>> getProductByCategory(@RequestParam String id) throws ServiceLogicException, ResourceNotFoundException {
         return productService.getProductByCategory(id);
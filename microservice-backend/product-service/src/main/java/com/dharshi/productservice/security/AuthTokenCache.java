@@ -0,0 +1,86 @@
+package com.dharshi.productservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of already validated bearer tokens, keyed by the SHA-256 digest of the token.
+ * An entry never outlives the token's own expiry.
+ */
+@Component
+public class AuthTokenCache {
+
+    private final Cache<String, CachedUser> cache;
+
+    private final long maxTtlMs;
+
+    public AuthTokenCache(MeterRegistry meterRegistry,
+                          @Value("${app.authTokenCache.maxSize}") long maxSize,
+                          @Value("${app.authTokenCache.maxTtlMs}") long maxTtlMs) {
+        this.maxTtlMs = maxTtlMs;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authTokenCache");
+    }
+
+    public UserDetails get(String token) {
+        CachedUser cachedUser = cache.getIfPresent(digest(token));
+        return cachedUser == null ? null : cachedUser.userDetails();
+    }
+
+    public void put(String token, UserDetails userDetails, Date tokenExpiration) {
+        long now = System.currentTimeMillis();
+        long expiresAtMs = now + maxTtlMs;
+        if (tokenExpiration != null) {
+            expiresAtMs = Math.min(expiresAtMs, tokenExpiration.getTime());
+        }
+        if (userDetails != null && expiresAtMs > now) {
+            cache.put(digest(token), new CachedUser(userDetails, expiresAtMs));
+        }
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedUser(UserDetails userDetails, long expiresAtMs) {
+    }
+
+    private static class TokenExpiry implements Expiry<String, CachedUser> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedUser value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMs() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedUser value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedUser value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
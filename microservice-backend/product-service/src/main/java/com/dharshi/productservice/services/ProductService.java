@@ -7,6 +7,8 @@ import com.dharshi.productservice.exceptions.ServiceLogicException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 
 @Service
 public interface ProductService {
@@ -16,6 +18,8 @@ public interface ProductService {
 
     ResponseEntity<ApiResponseDto<?>> getProductById(String productId) throws ServiceLogicException;
 
+    ResponseEntity<ApiResponseDto<?>> getProductsByIds(List<String> productIds) throws ServiceLogicException;
+
     ResponseEntity<ApiResponseDto<?>> getProductByCategory(String categoryId) throws ServiceLogicException, ResourceNotFoundException;
 
     ResponseEntity<ApiResponseDto<?>> searchProducts(String searchKey) throws ServiceLogicException;
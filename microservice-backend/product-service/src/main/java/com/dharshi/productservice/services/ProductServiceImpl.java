@@ -13,6 +13,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Slf4j
@@ -106,6 +108,25 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    @Override
+    public ResponseEntity<ApiResponseDto<?>> getProductsByIds(List<String> productIds) throws ServiceLogicException {
+        try {
+            // unknown ids are simply absent from the result, callers match products back by id
+            List<Product> products = new ArrayList<>();
+            productRepository.findAllById(new LinkedHashSet<>(productIds)).forEach(products::add);
+
+            return ResponseEntity.ok(
+                    ApiResponseDto.builder()
+                            .isSuccess(true)
+                            .response(products)
+                            .message(products.size() + " results found!")
+                            .build()
+            );
+        }catch (Exception e) {
+            throw new ServiceLogicException("Unable to find products!");
+        }
+    }
+
     @Override
     public ResponseEntity<ApiResponseDto<?>> getProductByCategory(String categoryId) throws ServiceLogicException, ResourceNotFoundException {
         try {
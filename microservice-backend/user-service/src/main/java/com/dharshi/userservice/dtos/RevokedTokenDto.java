@@ -0,0 +1,13 @@
+package com.dharshi.userservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedTokenDto {
+    private String tokenId;
+    private long expiresAt;
+}
@@ -0,0 +1,77 @@
+package com.dharshi.userservice.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Reads the identity headers that api-gateway signs after verifying the bearer token,
+ * so the request does not have to be authenticated again in this service.
+ */
+@Component
+public class GatewayIdentityVerifier {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    public static final String USER_EXPIRES_HEADER = "X-User-Expires";
+    public static final String USER_TOKEN_ID_HEADER = "X-User-Token-Id";
+    public static final String USER_SIGNATURE_HEADER = "X-User-Signature";
+
+    @Value("${app.gatewayIdentitySecret}")
+    private String gatewayIdentitySecret;
+
+    private SecretKeySpec identityKey;
+
+    @PostConstruct
+    void init() {
+        identityKey = new SecretKeySpec(gatewayIdentitySecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    /**
+     * @return the user, or null when the headers are missing, expired or not signed by the gateway
+     */
+    public UserDetails verify(HttpServletRequest request) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        String roles = request.getHeader(USER_ROLES_HEADER);
+        String expires = request.getHeader(USER_EXPIRES_HEADER);
+        String tokenId = request.getHeader(USER_TOKEN_ID_HEADER);
+        String signature = request.getHeader(USER_SIGNATURE_HEADER);
+        if (userId == null || roles == null || expires == null || tokenId == null || signature == null) {
+            return null;
+        }
+
+        try {
+            if (System.currentTimeMillis() > Long.parseLong(expires)) {
+                return null;
+            }
+            byte[] presented = Base64.getUrlDecoder().decode(signature);
+            if (!MessageDigest.isEqual(sign(userId, roles, expires, tokenId), presented)) {
+                return null;
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        return new UserDetails(userId, roles.isEmpty() ? List.of() : List.of(roles.split(",")),
+                tokenId.isEmpty() ? null : tokenId);
+    }
+
+    private byte[] sign(String userId, String roles, String expires, String tokenId) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(identityKey);
+            return mac.doFinal((userId + "\n" + roles + "\n" + expires + "\n" + tokenId).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}